@@ -0,0 +1,63 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import nnt_data.yanki_service.entity.TransactionYanki;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de {@link MessageWrapper} con el {@link JsonSerializer} del productor y el
+ * {@link JsonDeserializer} que define {@link KafkaConfig}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageWrapperSerdeBenchmark {
+
+    private static final String TOPIC = "yanki-transaction-request";
+
+    private JsonSerializer<Object> serializer;
+    private JsonDeserializer<MessageWrapper<?>> deserializer;
+    private MessageWrapper<TransactionYanki> message;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        deserializer = new KafkaConfig().jsonDeserializer();
+        message = new MessageWrapper<>(new TransactionYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5b")
+                .type(TransactionYanki.TypeEnum.PAYMENT)
+                .telefonoOrigen("987654321")
+                .telefonoDestino("912345678")
+                .monto(new BigDecimal("150.75")),
+                "4f6c2a8e-1d3b-4c5a-9e7f-0a1b2c3d4e5f");
+        payload = serializer.serialize(TOPIC, message);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public MessageWrapper<?> deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+}
@@ -0,0 +1,57 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ciclo registrar/completar/eliminar de correlaciones de {@code KafkaService} con varios hilos
+ * compitiendo por el registro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PendingResponseRegistryBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Object REPLY = Boolean.TRUE;
+
+    @Param({"16"})
+    public int shards;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private PendingResponseRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new PendingResponseRegistry(shards, 1_000_000, Duration.ofMillis(100), 512,
+                new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.shutdown();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void registerCompleteRemove(Blackhole blackhole) {
+        String correlationId = Long.toString(sequence.incrementAndGet());
+        blackhole.consume(registry.register(correlationId, TIMEOUT));
+        blackhole.consume(registry.complete(correlationId, REPLY));
+        registry.remove(correlationId);
+    }
+}
@@ -0,0 +1,103 @@
+package nnt_data.yanki_service.infrastructure.persistence.mapper;
+
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.entity.UserYanki;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por conversión entre los modelos OpenAPI y las entidades Mongo. Los métodos
+ * {@code beanUtils*} reproducen la implementación anterior ({@code BeanUtils.copyProperties}
+ * envuelto en {@code Mono.just}) como referencia frente a los mappers de MapStruct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private final TransactionYankiMapper transactionMapper = new TransactionYankiMapperImpl();
+    private final UserYankiMapper userMapper = new UserYankiMapperImpl();
+
+    private TransactionYanki transaction;
+    private TransactionYankiEntity transactionEntity;
+    private UserYanki user;
+    private UserYankiEntity userEntity;
+
+    @Setup
+    public void setUp() {
+        transaction = new TransactionYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5b")
+                .type(TransactionYanki.TypeEnum.PAYMENT)
+                .telefonoOrigen("987654321")
+                .telefonoDestino("912345678")
+                .monto(new BigDecimal("150.75"));
+        transactionEntity = transactionMapper.toEntity(transaction);
+        user = new UserYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5a")
+                .tipoDocumento(UserYanki.TipoDocumentoEnum.DNI)
+                .numeroDocumento("71234567")
+                .telefono("987654321")
+                .imei("356938035643809")
+                .correo("cliente@correo.pe")
+                .pin("1234")
+                .tarjetaAsociada("4111111111111111");
+        userEntity = userMapper.toEntity(user);
+    }
+
+    @Benchmark
+    public TransactionYankiEntity transactionToEntity() {
+        return transactionMapper.toEntity(transaction);
+    }
+
+    @Benchmark
+    public TransactionYanki transactionToDomain() {
+        return transactionMapper.toDomain(transactionEntity);
+    }
+
+    @Benchmark
+    public UserYankiEntity userToEntity() {
+        return userMapper.toEntity(user);
+    }
+
+    @Benchmark
+    public UserYanki userToDomain() {
+        return userMapper.toDomain(userEntity);
+    }
+
+    @Benchmark
+    public TransactionYankiEntity beanUtilsTransactionToEntity() {
+        return copy(transaction, new TransactionYankiEntity()).block();
+    }
+
+    @Benchmark
+    public TransactionYanki beanUtilsTransactionToDomain() {
+        return copy(transactionEntity, new TransactionYanki()).block();
+    }
+
+    @Benchmark
+    public UserYankiEntity beanUtilsUserToEntity() {
+        return copy(user, new UserYankiEntity()).block();
+    }
+
+    @Benchmark
+    public UserYanki beanUtilsUserToDomain() {
+        return copy(userEntity, new UserYanki()).block();
+    }
+
+    private static <T> Mono<T> copy(Object source, T target) {
+        BeanUtils.copyProperties(source, target);
+        return Mono.just(target);
+    }
+}
@@ -0,0 +1,104 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.entity.UserYanki;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializadores de valores Redis: el binario versionado que usan {@link UserRedisConfig} y
+ * {@link TransactionRedisConfig} frente al JSON de Jackson que reemplaza.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedisSerializerBenchmark {
+
+    private final RedisSerializer<UserYanki> userJson = new Jackson2JsonRedisSerializer<>(UserYanki.class);
+    private final RedisSerializer<UserYanki> userBinary =
+            new VersionedBinaryRedisSerializer<>(new UserYankiBinaryCodec(), userJson);
+    private final RedisSerializer<TransactionYanki> transactionJson =
+            new Jackson2JsonRedisSerializer<>(TransactionYanki.class);
+    private final RedisSerializer<TransactionYanki> transactionBinary =
+            new VersionedBinaryRedisSerializer<>(new TransactionYankiBinaryCodec(), transactionJson);
+
+    private UserYanki user;
+    private TransactionYanki transaction;
+    private byte[] userJsonBytes;
+    private byte[] userBinaryBytes;
+    private byte[] transactionJsonBytes;
+    private byte[] transactionBinaryBytes;
+
+    @Setup
+    public void setUp() {
+        user = new UserYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5a")
+                .tipoDocumento(UserYanki.TipoDocumentoEnum.DNI)
+                .numeroDocumento("71234567")
+                .telefono("987654321")
+                .imei("356938035643809")
+                .correo("cliente@correo.pe")
+                .pin("1234")
+                .tarjetaAsociada("4111111111111111");
+        transaction = new TransactionYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5b")
+                .type(TransactionYanki.TypeEnum.PAYMENT)
+                .telefonoOrigen("987654321")
+                .telefonoDestino("912345678")
+                .monto(new BigDecimal("150.75"));
+        userJsonBytes = userJson.serialize(user);
+        userBinaryBytes = userBinary.serialize(user);
+        transactionJsonBytes = transactionJson.serialize(transaction);
+        transactionBinaryBytes = transactionBinary.serialize(transaction);
+    }
+
+    @Benchmark
+    public byte[] userSerializeJson() {
+        return userJson.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] userSerializeBinary() {
+        return userBinary.serialize(user);
+    }
+
+    @Benchmark
+    public UserYanki userDeserializeJson() {
+        return userJson.deserialize(userJsonBytes);
+    }
+
+    @Benchmark
+    public UserYanki userDeserializeBinary() {
+        return userBinary.deserialize(userBinaryBytes);
+    }
+
+    @Benchmark
+    public byte[] transactionSerializeJson() {
+        return transactionJson.serialize(transaction);
+    }
+
+    @Benchmark
+    public byte[] transactionSerializeBinary() {
+        return transactionBinary.serialize(transaction);
+    }
+
+    @Benchmark
+    public TransactionYanki transactionDeserializeJson() {
+        return transactionJson.deserialize(transactionJsonBytes);
+    }
+
+    @Benchmark
+    public TransactionYanki transactionDeserializeBinary() {
+        return transactionBinary.deserialize(transactionBinaryBytes);
+    }
+}
@@ -2,24 +2,39 @@ package nnt_data.yanki_service.controller;
 
 import com.mongodb.DuplicateKeyException;
 import lombok.RequiredArgsConstructor;
+import nnt_data.yanki_service.domain.exception.IdempotencyKeyInProgressException;
+import nnt_data.yanki_service.domain.exception.IdempotencyKeyReuseException;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import nnt_data.yanki_service.domain.service.TransactionIdempotencyService;
 import nnt_data.yanki_service.domain.service.TransactionYankiService;
 import nnt_data.yanki_service.domain.service.UserYankiService;
 import nnt_data.yanki_service.entity.AsociacionTarjeta;
+import nnt_data.yanki_service.entity.EstadoTransferencia;
+import nnt_data.yanki_service.entity.MovimientoHistorial;
+import nnt_data.yanki_service.entity.ResultadoTransferencia;
 import nnt_data.yanki_service.entity.TransactionYanki;
 import nnt_data.yanki_service.entity.UserYanki;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 import nnt_data.yanki_service.api.YankiApi;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
+import java.util.Locale;
+
 @RestController
 @RequiredArgsConstructor
 public class YankiController implements YankiApi {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final UserYankiService userYankiService;
     private final TransactionYankiService transactionYankiService;
+    private final TransactionIdempotencyService transactionIdempotencyService;
 
 
     /**
@@ -32,6 +47,7 @@ public class YankiController implements YankiApi {
      * or Datos de entrada inválidos (status code 400)
      * or Usuario no encontrado (status code 404)
      * or La tarjeta ya está asociada a otro monedero (status code 409)
+     * or Servicio saturado, reintentar tras Retry-After (status code 503)
      */
     @Override
     public Mono<ResponseEntity<AsociacionTarjeta>> asociarTarjeta(Mono<AsociacionTarjeta> asociacionTarjeta, ServerWebExchange exchange) {
@@ -48,7 +64,8 @@ public class YankiController implements YankiApi {
                 .defaultIfEmpty(ResponseEntity.badRequest().build())
                 .onErrorResume(DuplicateKeyException.class, e -> {
                     return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
-                });
+                })
+                .onErrorResume(ServiceOverloadedException.class, YankiController::serviceUnavailable);
     }
 
     /**
@@ -56,18 +73,38 @@ public class YankiController implements YankiApi {
      * Permite enviar dinero desde un monedero a otro usando el número de teléfono
      *
      * @param transactionYanki (required)
+     * @param idempotencyKey (optional)
+     * @param prefer (optional)
      * @param exchange
      * @return Transferencia realizada correctamente (status code 201)
+     * or Transferencia aceptada para procesamiento asíncrono (status code 202)
      * or Datos de entrada inválidos (status code 400)
      * or Algún monedero no encontrado (status code 404)
-     * or Saldo insuficiente para realizar la operación (status code 422)
+     * or Otra solicitud con la misma Idempotency-Key sigue en curso (status code 409)
+     * or Saldo insuficiente o Idempotency-Key reutilizada con otros datos (status code 422)
+     * or Servicio saturado, reintentar tras Retry-After (status code 503)
      */
     @Override
-    public Mono<ResponseEntity<TransactionYanki>> realizarTransferencia(Mono<TransactionYanki> transactionYanki, ServerWebExchange exchange) {
-        return transactionYankiService.createTransaction(transactionYanki)
-                .map(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(transaction))
+    public Mono<ResponseEntity<TransactionYanki>> realizarTransferencia(Mono<TransactionYanki> transactionYanki, String idempotencyKey, String prefer, ServerWebExchange exchange) {
+        boolean async = prefer != null && prefer.toLowerCase(Locale.ROOT).contains(RESPOND_ASYNC);
+        return transactionYanki
+                .flatMap(transaction -> transactionIdempotencyService.execute(idempotencyKey, transaction,
+                        () -> async
+                                ? transactionYankiService.createTransactionAsync(Mono.just(transaction))
+                                : transactionYankiService.createTransaction(Mono.just(transaction))))
+                .map(transaction -> async
+                        ? ResponseEntity.accepted()
+                                .location(URI.create("/yanki/monederos/transacciones/" + transaction.getId() + "/estado"))
+                                .header("Preference-Applied", RESPOND_ASYNC)
+                                .body(transaction)
+                        : ResponseEntity.status(HttpStatus.CREATED).body(transaction))
                 .onErrorResume(IllegalArgumentException.class, e ->
                         Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build()))
+                .onErrorResume(IdempotencyKeyReuseException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build()))
+                .onErrorResume(IdempotencyKeyInProgressException.class, e ->
+                        Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(ServiceOverloadedException.class, YankiController::serviceUnavailable)
                 .onErrorResume(Exception.class, e -> {
                     if (e.getMessage().contains("saldo insuficiente")) {
                         return Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build());
@@ -79,6 +116,76 @@ public class YankiController implements YankiApi {
                 });
     }
 
+    private static <T> Mono<ResponseEntity<T>> serviceUnavailable(ServiceOverloadedException e) {
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .build());
+    }
+
+    /**
+     * GET /yanki/monederos/transacciones/{id}/estado : Estado de una transferencia asíncrona
+     *
+     * @param id (required)
+     * @param exchange
+     * @return Estado de la transferencia (status code 200)
+     * or Transferencia no encontrada o estado caducado (status code 404)
+     */
+    @Override
+    public Mono<ResponseEntity<EstadoTransferencia>> consultarEstadoTransferencia(String id, ServerWebExchange exchange) {
+        return transactionYankiService.findTransferStatus(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /yanki/monederos/transacciones/{id}/estado/stream : Seguimiento de una transferencia asíncrona
+     * Emite por SSE cada cambio de estado de la transferencia hasta su resultado final
+     *
+     * @param id (required)
+     * @param exchange
+     * @return Cambios de estado de la transferencia (status code 200)
+     * or Transferencia no encontrada o estado caducado (status code 404)
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<EstadoTransferencia>>> seguirEstadoTransferencia(String id, ServerWebExchange exchange) {
+        return transactionYankiService.followTransferStatus(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /yanki/monederos/{telefono}/transacciones : Historial de transacciones de un monedero
+     * Devuelve los movimientos del más reciente al más antiguo como flujo NDJSON o SSE, paginados por cursor
+     *
+     * @param telefono (required)
+     * @param rol (optional, default to TODOS)
+     * @param limite (optional, default to 100)
+     * @param cursor (optional)
+     * @param exchange
+     * @return Movimientos del monedero (status code 200)
+     * or Parámetros o cursor inválidos (status code 400)
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<MovimientoHistorial>>> listarTransacciones(String telefono, String rol, Integer limite, String cursor, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> transactionYankiService.findHistory(telefono, rol, limite, cursor))
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * POST /yanki/monederos/transacciones/lote : Realizar transferencias en lote
+     * Procesa un lote de transferencias y devuelve el resultado de cada una a medida que termina
+     *
+     * @param transactionYanki (required)
+     * @param exchange
+     * @return Resultado de cada transferencia del lote (status code 200)
+     * or Datos de entrada inválidos (status code 400)
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<ResultadoTransferencia>>> realizarTransferenciasLote(Flux<TransactionYanki> transactionYanki, ServerWebExchange exchange) {
+        return Mono.just(ResponseEntity.ok(transactionYankiService.createTransactions(transactionYanki)));
+    }
 
     /**
      * POST /yanki/usuarios : Registrar nuevo usuario
@@ -2,20 +2,46 @@ package nnt_data.yanki_service.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nnt_data.yanki_service.domain.service.KafkaService;
 import nnt_data.yanki_service.domain.service.UserYankiService;
 import nnt_data.yanki_service.infrastructure.persistence.kafka.MessageWrapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Atiende las solicitudes de validación de usuarios Yanki con un pipeline reactivo:
+ * los mensajes se agrupan en micro-lotes que se resuelven con una sola consulta de
+ * existencia, el número de lotes en proceso está acotado y cada offset se confirma
+ * solo después de enviar su respuesta. Si una respuesta no se puede enviar tras los
+ * reintentos, el lote falla y el consumidor se vuelve a suscribir desde el último
+ * offset confirmado, de modo que ninguna solicitud queda sin respuesta.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class YankiKafkaListener {
 
+    private static final TypeReference<MessageWrapper<String>> REQUEST_TYPE = new TypeReference<>() {};
+
+    private final KafkaReceiver<String, String> yankiValidationReceiver;
     private final KafkaService kafkaService;
     private final UserYankiService userYankiService;
     private final ObjectMapper objectMapper;
@@ -23,48 +49,84 @@ public class YankiKafkaListener {
     @Value("${kafka.topics.yanki-validation-response}")
     private String yankiResponseTopic;
 
-    @KafkaListener(
-            topics = "${kafka.topics.yanki-validation-request}",
-            groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "kafkaListenerContainerFactory"
-    )
-    public void listenForYankiValidationRequests(String message) {
-        try {
-            MessageWrapper<String> wrapper = objectMapper.readValue(
-                    message,
-                    new TypeReference<MessageWrapper<String>>() {}
-            );
-
-            String userId = wrapper.getPayload();
-            String correlationId = wrapper.getCorrelationId();
-
-            userYankiService.existById(userId)
-                    .doOnNext(exists -> {
-                        try {
-                            MessageWrapper<Boolean> responseWrapper =
-                                    new MessageWrapper<>(exists, correlationId);
-                            kafkaService.send(yankiResponseTopic, responseWrapper)
-                                    .subscribe();
-                            log.info("Respuesta de validación enviada para usuario Yanki {}: {}",
-                                    userId, exists);
-                        } catch (Exception e) {
-                            log.error("Error al enviar respuesta de validación: {}",
-                                    e.getMessage());
-                        }
-                    })
-                    .doOnError(error -> {
-                        log.error("Error al validar usuario Yanki {}: {}",
-                                userId, error.getMessage());
-                        MessageWrapper<Boolean> errorWrapper =
-                                new MessageWrapper<>(false, correlationId);
-                        kafkaService.send(yankiResponseTopic, errorWrapper)
-                                .subscribe();
-                    })
-                    .subscribe();
-        } catch (Exception e) {
-            log.error("Error al procesar mensaje de validación: {}", e.getMessage());
+    @Value("${kafka.validation.batch-size:100}")
+    private int batchSize;
+
+    @Value("${kafka.validation.batch-window:PT0.02S}")
+    private Duration batchWindow;
+
+    @Value("${kafka.validation.concurrency:4}")
+    private int concurrency;
+
+    @Value("${kafka.validation.reply-retries:3}")
+    private int replyRetries;
+
+    @Value("${kafka.validation.reply-backoff:PT0.2S}")
+    private Duration replyBackoff;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = yankiValidationReceiver.receive()
+                .bufferTimeout(batchSize, batchWindow, true)
+                .flatMap(this::processBatch, concurrency)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.error("Error en el consumidor de validación, reintentando",
+                                signal.failure())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> processBatch(List<ReceiverRecord<String, String>> records) {
+        List<ValidationRequest> requests = new ArrayList<>(records.size());
+        for (ReceiverRecord<String, String> record : records) {
+            try {
+                MessageWrapper<String> wrapper = objectMapper.readValue(record.value(), REQUEST_TYPE);
+                requests.add(new ValidationRequest(record, wrapper.getPayload(), wrapper.getCorrelationId()));
+            } catch (Exception e) {
+                log.error("Error al procesar mensaje de validación: {}", e.getMessage());
+                record.receiverOffset().acknowledge();
+            }
         }
+
+        Set<String> userIds = requests.stream()
+                .map(ValidationRequest::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        return userYankiService.findExistingIds(userIds)
+                .onErrorResume(error -> {
+                    log.error("Error al validar lote de {} usuarios Yanki: {}", userIds.size(), error.getMessage());
+                    return Mono.just(Set.of());
+                })
+                .flatMapMany(existing -> Flux.fromIterable(requests)
+                        .flatMap(request -> reply(request, request.userId() != null && existing.contains(request.userId()))))
+                .then();
     }
 
+    private Mono<Void> reply(ValidationRequest request, boolean exists) {
+        MessageWrapper<Boolean> responseWrapper = new MessageWrapper<>(exists, request.correlationId());
+        return kafkaService.send(yankiResponseTopic, responseWrapper)
+                .retryWhen(Retry.backoff(replyRetries, replyBackoff)
+                        .doBeforeRetry(signal -> log.warn("Error al enviar respuesta de validación, reintentando: {}",
+                                signal.failure().getMessage())))
+                .doOnSuccess(ignored -> {
+                    request.record().receiverOffset().acknowledge();
+                    log.info("Respuesta de validación enviada para usuario Yanki {}: {}", request.userId(), exists);
+                })
+                // Sin confirmar el offset: el error hace fallar el lote y el consumidor relee desde el último commit
+                .doOnError(error -> log.error("No se pudo enviar respuesta de validación para usuario Yanki {}: {}",
+                        request.userId(), error.getMessage()));
+    }
 
+    private record ValidationRequest(ReceiverRecord<String, String> record, String userId, String correlationId) {
+    }
 }
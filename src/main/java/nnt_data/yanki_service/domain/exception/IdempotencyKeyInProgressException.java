@@ -0,0 +1,10 @@
+package nnt_data.yanki_service.domain.exception;
+
+/**
+ * Otra instancia sigue procesando la solicitud con la misma Idempotency-Key.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super("Solicitud con Idempotency-Key en curso: " + idempotencyKey);
+    }
+}
@@ -0,0 +1,10 @@
+package nnt_data.yanki_service.domain.exception;
+
+/**
+ * Se reutilizó una Idempotency-Key con una solicitud distinta a la original.
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super("Idempotency-Key reutilizada con otros datos: " + idempotencyKey);
+    }
+}
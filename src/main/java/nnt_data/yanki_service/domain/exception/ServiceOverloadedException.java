@@ -0,0 +1,20 @@
+package nnt_data.yanki_service.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Se rechazó la solicitud porque el límite de concurrencia hacia el banco está completo.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,156 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Límite de concurrencia adaptativo para las operaciones que esperan respuesta del banco por Kafka.
+ * <p>
+ * Sigue el esquema de gradiente: compara la latencia de respuesta reciente (media móvil corta) con
+ * la de referencia (media móvil larga). Mientras la reciente no supera la referencia por más de
+ * {@code rtt-tolerance}, el límite crece en {@code sqrt(límite)}; cuando la supera, el límite se
+ * reduce en proporción, y cada timeout lo reduce a la mitad. Una solicitud se admite solo si las
+ * operaciones que el propio limitador admitió están por debajo del límite; si no, falla al instante
+ * con {@link ServiceOverloadedException} en lugar de esperar al timeout. Las correlaciones de Kafka
+ * que no pasan por el limitador (lotes masivos, con su propia concurrencia) no cuentan.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_ALPHA = 0.2;
+    private static final double LONG_ALPHA = 0.01;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${yanki.concurrency.enabled:true}") boolean enabled,
+            @Value("${yanki.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${yanki.concurrency.min-limit:4}") int minLimit,
+            @Value("${yanki.concurrency.max-limit:500}") int maxLimit,
+            @Value("${yanki.concurrency.rtt-tolerance:2.0}") double rttTolerance,
+            @Value("${yanki.concurrency.smoothing:0.2}") double smoothing) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("yanki.concurrency.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Límite de concurrencia adaptativo hacia el banco")
+                .register(meterRegistry);
+        Gauge.builder("yanki.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Operaciones admitidas por el limitador en curso")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("yanki.concurrency.rejected")
+                .description("Solicitudes rechazadas con 503 por el limitador")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la operación si hay capacidad; el permiso se libera al terminar, fallar o cancelarse.
+     *
+     * @throws ServiceOverloadedException (como error del Mono) si el límite está completo
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> operation) {
+        if (!enabled) {
+            return Mono.defer(operation);
+        }
+        return Mono.defer(() -> {
+            int current = limit();
+            if (!tryAcquire(current)) {
+                rejected.increment();
+                return Mono.error(new ServiceOverloadedException(
+                        "Límite de concurrencia alcanzado: " + current, retryAfter()));
+            }
+            return operation.get().doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private boolean tryAcquire(int current) {
+        int taken;
+        do {
+            taken = inFlight.get();
+            if (taken >= current) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(taken, taken + 1));
+        return true;
+    }
+
+    /**
+     * Registra la latencia de una respuesta recibida del banco.
+     */
+    public synchronized void onSample(Duration rtt) {
+        double sample = rtt.toNanos();
+        if (longRttNanos == 0) {
+            shortRttNanos = sample;
+            longRttNanos = sample;
+        } else {
+            shortRttNanos += SHORT_ALPHA * (sample - shortRttNanos);
+            longRttNanos += LONG_ALPHA * (sample - longRttNanos);
+        }
+        // Si la carga bajó mucho, la referencia se acerca rápido para no quedar anclada en valores altos
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double current = limit;
+        // Sin demanda suficiente el límite no se mide de verdad: no se amplía
+        double queue = inFlight.get() < current / 2 ? 0 : Math.sqrt(current);
+        double target = current * gradient + queue;
+        update(current * (1 - smoothing) + target * smoothing);
+    }
+
+    /**
+     * Registra una solicitud sin respuesta a tiempo: reducción multiplicativa del límite.
+     */
+    public synchronized void onDrop() {
+        update(limit * 0.5);
+    }
+
+    private void update(double candidate) {
+        double bounded = Math.max(minLimit, Math.min(maxLimit, candidate));
+        if ((int) bounded != (int) limit) {
+            log.debug("Límite de concurrencia ajustado de {} a {}", (int) limit, (int) bounded);
+        }
+        limit = bounded;
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Tiempo sugerido al cliente: la latencia reciente redondeada al segundo, al menos uno.
+     */
+    private Duration retryAfter() {
+        long seconds = (long) Math.ceil(shortRttNanos / 1_000_000_000d);
+        return Duration.ofSeconds(Math.max(1, seconds));
+    }
+}
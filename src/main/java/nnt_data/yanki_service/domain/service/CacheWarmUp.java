@@ -0,0 +1,176 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Precarga las cachés desde Mongo al arrancar. Se ejecuta como {@link ApplicationRunner}, por lo que
+ * termina antes de que la instancia se declare lista para recibir tráfico.
+ * <p>
+ * Recorre las transacciones de la ventana {@code lookback} dividida en rangos de {@code _id} (un ObjectId
+ * empieza por su instante de creación), cada rango con su propio cursor y todos en paralelo, de la más
+ * reciente a la más antigua. Los rangos se consumen en orden, del más reciente al más antiguo, así que el
+ * presupuesto de entradas se gasta primero en la actividad más reciente. Por cada lote se precargan esas transacciones y los usuarios que participan
+ * en ellas, por id y por teléfono. Las escrituras van en ráfaga y no pisan entradas existentes
+ * ({@link nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache#preload}).
+ * <p>
+ * El calentamiento se corta al agotar el presupuesto de tiempo o de transacciones recorridas. Un fallo
+ * solo se registra: arrancar con la caché fría es preferible a no arrancar. Se ejecuta después de crear
+ * los índices y de reaplicar el diario de escritura diferida, para precargar datos ya completos.
+ */
+@Slf4j
+@Component
+@Order(3)
+public class CacheWarmUp implements ApplicationRunner {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionYankiService transactionYankiService;
+    private final UserYankiService userYankiService;
+    private final PhoneCardLookupService phoneCardLookupService;
+    private final Counter warmedTransactions;
+    private final Counter warmedUsers;
+    private final Counter warmedPhoneCards;
+
+    @Value("${yanki.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${yanki.warmup.lookback:PT24H}")
+    private Duration lookback = Duration.ofHours(24);
+
+    @Value("${yanki.warmup.partitions:8}")
+    private int partitions = 8;
+
+    @Value("${yanki.warmup.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${yanki.warmup.max-entries:50000}")
+    private long maxEntries = 50_000;
+
+    @Value("${yanki.warmup.timeout:PT30S}")
+    private Duration timeout = Duration.ofSeconds(30);
+
+    public CacheWarmUp(ReactiveMongoTemplate mongoTemplate,
+                       TransactionYankiService transactionYankiService,
+                       UserYankiService userYankiService,
+                       PhoneCardLookupService phoneCardLookupService,
+                       MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionYankiService = transactionYankiService;
+        this.userYankiService = userYankiService;
+        this.phoneCardLookupService = phoneCardLookupService;
+        this.warmedTransactions = warmed(meterRegistry, "transactions");
+        this.warmedUsers = warmed(meterRegistry, "users");
+        this.warmedPhoneCards = warmed(meterRegistry, "phone-cards");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        warmUp(Instant.now())
+                .timeout(timeout, Mono.fromRunnable(() ->
+                        log.warn("Calentamiento de caché cortado al agotar el presupuesto de {}", timeout)))
+                .onErrorResume(error -> {
+                    log.warn("Calentamiento de caché interrumpido: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+        log.info("Caché precargada en {} ms: {} transacciones, {} usuarios, {} teléfonos",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                (long) warmedTransactions.count(), (long) warmedUsers.count(), (long) warmedPhoneCards.count());
+    }
+
+    /**
+     * Recorre como máximo {@code maxEntries} transacciones de la ventana que termina en {@code now}.
+     */
+    public Mono<Void> warmUp(Instant now) {
+        Set<String> seenPhones = ConcurrentHashMap.newKeySet();
+        return Flux.fromIterable(idRanges(now, lookback, partitions))
+                .flatMapSequential(this::recentTransactions, partitions, batchSize)
+                .take(maxEntries)
+                .buffer(batchSize)
+                .concatMap(batch -> warmBatch(batch, seenPhones))
+                .then();
+    }
+
+    private Flux<TransactionYankiEntity> recentTransactions(ObjectId[] range) {
+        Query query = new Query(Criteria.where("_id").gte(range[0]).lt(range[1]))
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.find(query, TransactionYankiEntity.class);
+    }
+
+    private Mono<Void> warmBatch(List<TransactionYankiEntity> transactions, Set<String> seenPhones) {
+        List<String> phones = transactions.stream()
+                .flatMap(transaction -> Stream.of(transaction.getTelefonoOrigen(), transaction.getTelefonoDestino()))
+                .filter(Objects::nonNull)
+                .filter(seenPhones::add)
+                .toList();
+        Mono<Void> users = phones.isEmpty()
+                ? Mono.empty()
+                : mongoTemplate.find(new Query(Criteria.where("telefono").in(phones)), UserYankiEntity.class)
+                        .collectList()
+                        .flatMap(found -> Mono.when(
+                                userYankiService.warmUp(found).doOnNext(warmedUsers::increment),
+                                phoneCardLookupService.warmUp(found).doOnNext(warmedPhoneCards::increment)));
+        return Mono.when(
+                transactionYankiService.warmUp(transactions).doOnNext(warmedTransactions::increment),
+                users);
+    }
+
+    /**
+     * Divide la ventana {@code [now - lookback, now]} en {@code partitions} rangos {@code [desde, hasta)} de
+     * ObjectId, el más reciente primero.
+     */
+    static List<ObjectId[]> idRanges(Instant now, Duration lookback, int partitions) {
+        long end = now.getEpochSecond() + 1;
+        long step = Math.max(1, lookback.toSeconds() / partitions);
+        List<ObjectId[]> ranges = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            long upper = end - i * step;
+            long lower = i == partitions - 1 ? end - lookback.toSeconds() - 1 : upper - step;
+            ranges.add(new ObjectId[]{objectIdAt(lower), objectIdAt(upper)});
+        }
+        return ranges;
+    }
+
+    /**
+     * @return El menor ObjectId generado en el segundo {@code epochSecond}
+     */
+    private static ObjectId objectIdAt(long epochSecond) {
+        return new ObjectId(String.format("%08x%016x", Math.max(0, epochSecond), 0));
+    }
+
+    private static Counter warmed(MeterRegistry meterRegistry, String cache) {
+        return Counter.builder("yanki.cache.warmup.entries")
+                .tag("cache", cache)
+                .description("Entradas escritas en Redis por el calentamiento de arranque")
+                .register(meterRegistry);
+    }
+}
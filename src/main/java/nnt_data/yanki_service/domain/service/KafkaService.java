@@ -1,37 +1,44 @@
 package nnt_data.yanki_service.domain.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import nnt_data.yanki_service.infrastructure.jfr.JfrEvents;
+import nnt_data.yanki_service.infrastructure.persistence.kafka.KafkaReplyRouting;
 import nnt_data.yanki_service.infrastructure.persistence.kafka.MessageWrapper;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.support.MessageBuilder;
+import nnt_data.yanki_service.infrastructure.persistence.kafka.PendingResponseRegistry;
+import nnt_data.yanki_service.infrastructure.persistence.kafka.ReactiveKafkaProducer;
+import nnt_data.yanki_service.infrastructure.resilience.DependencyGuard;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ReactiveKafkaProducer kafkaProducer;
     private final ObjectMapper objectMapper;
-    private final Map<String, Sinks.One<Object>> pendingResponses = new ConcurrentHashMap<>();
+    private final PendingResponseRegistry pendingResponses;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final DependencyGuard kafkaGuard;
+    private final MeterRegistry meterRegistry;
+    private final KafkaReplyRouting replyRouting;
 
     /**
      * Sends a message to a request topic and waits for a response on a response topic
      *
      * @param requestTopic The topic to send the request to
-     * @param responseTopic The topic where the response will be received
+     * @param responseTopic The shared topic where responders that ignore the reply-to header answer
      * @param payload The payload to send
      * @param responseType The expected response type
      * @param timeout The maximum time to wait for a response
@@ -42,34 +49,44 @@ public class KafkaService {
         String correlationId = UUID.randomUUID().toString();
         log.debug("Preparing to send message with correlationId: {} to topic: {}", correlationId, requestTopic);
 
-        // Create a sink to receive the response
-        Sinks.One<Object> responseSink = Sinks.one();
-        pendingResponses.put(correlationId, responseSink);
-
-        // Create a message wrapper with the correlation ID
+        // Create a message wrapper with the correlation ID; the reply-to header routes the answer to this instance
         MessageWrapper<T> wrapper = new MessageWrapper<>(payload, correlationId);
+        ProducerRecord<String, Object> request =
+                replyRouting.withReplyHeaders(new ProducerRecord<>(requestTopic, correlationId, wrapper), correlationId);
 
-        // Build the kafka message
-        Message<MessageWrapper<T>> message = MessageBuilder
-                .withPayload(wrapper)
-                .setHeader(KafkaHeaders.TOPIC, requestTopic)
-                .setHeader(KafkaHeaders.KEY, correlationId)
-                .build();
-
-        // Send the message
-        return Mono.fromCallable(() -> {
+        // Register the pending response; the registry fails it with a TimeoutException on expiry.
+        // A producer failure fails the returned Mono right away instead of waiting for the timeout.
+        // Reply latencies and timeouts feed the adaptive concurrency limiter, and the circuit breaker
+        // fails fast while the bank keeps timing out.
+        return kafkaGuard.protect("sendAndReceive", Mono.defer(() -> {
+                    Mono<Object> response = pendingResponses.register(correlationId, timeout);
                     log.debug("Sending message to topic: {} with correlationId: {}", requestTopic, correlationId);
-                    kafkaTemplate.send(message);
-                    return correlationId;
+                    long startNanos = System.nanoTime();
+                    JfrEvents.RequestReply jfrEvent = JfrEvents.beginRequestReply(correlationId, requestTopic);
+                    return kafkaProducer.send(request)
+                            .doOnSuccess(result -> jfrEvent.sent())
+                            .then(response)
+                            .doOnSuccess(reply -> {
+                                Duration rtt = Duration.ofNanos(System.nanoTime() - startNanos);
+                                concurrencyLimiter.onSample(rtt);
+                                requestReplyTimer(requestTopic, "success").record(rtt);
+                                jfrEvent.finish("success");
+                            })
+                            .doOnError(error -> {
+                                String outcome = error instanceof TimeoutException ? "timeout" : "error";
+                                requestReplyTimer(requestTopic, outcome)
+                                        .record(Duration.ofNanos(System.nanoTime() - startNanos));
+                                jfrEvent.finish(outcome);
+                            })
+                            .doOnCancel(() -> jfrEvent.finish("cancelled"))
+                            .doOnError(TimeoutException.class, error -> concurrencyLimiter.onDrop());
+                }))
+                .onErrorMap(RejectedExecutionException.class, error ->
+                        new ServiceOverloadedException(error.getMessage(), Duration.ofSeconds(1)))
+                .doFinally(signalType -> {
+                    log.debug("Removing response sink for correlationId: {}", correlationId);
+                    pendingResponses.remove(correlationId);
                 })
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(id -> responseSink.asMono()
-                        .timeout(timeout)
-                        .doFinally(signalType -> {
-                            log.debug("Removing response sink for correlationId: {}", correlationId);
-                            pendingResponses.remove(correlationId);
-                        })
-                )
                 // Replace direct cast with proper conversion
                 .flatMap(response -> {
                     try {
@@ -90,23 +107,48 @@ public class KafkaService {
                 .doOnSuccess(response -> log.debug("Received response for correlationId: {}: {}", correlationId, response));
     }
 
+    /**
+     * Round-trip time of a request-reply exchange, per request topic and outcome
+     */
+    private Timer requestReplyTimer(String topic, String outcome) {
+        return Timer.builder("yanki.kafka.request.reply")
+                .description("Kafka request-reply round-trip time")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes a request wrapped with the given correlation ID without waiting for its response.
+     * The response is expected to be handled by whoever owns the correlation ID (e.g. async transfers).
+     *
+     * @param requestTopic  The topic to send the request to
+     * @param correlationId The correlation ID the response will carry
+     * @param payload       The payload to send
+     * @return A Mono<Void> that completes when the request is acknowledged by Kafka
+     */
+    public <T> Mono<Void> sendRequest(String requestTopic, String correlationId, T payload) {
+        return send(requestTopic, correlationId, new MessageWrapper<>(payload, correlationId));
+    }
+
     /**
      * Handle response messages received from Kafka
      * This method should be called by a Kafka listener
      *
      * @param message The received message
+     * @return true if a request waiting on this instance received the response
      */
-    public void handleResponse(MessageWrapper<?> message) {
+    public boolean handleResponse(MessageWrapper<?> message) {
         String correlationId = message.getCorrelationId();
         log.debug("Received response with correlationId: {}", correlationId);
 
-        Sinks.One<Object> sink = pendingResponses.get(correlationId);
-        if (sink != null) {
-            log.debug("Found pending request for correlationId: {}, emitting response", correlationId);
-            sink.tryEmitValue(message.getPayload());
-        } else {
-            log.warn("No pending request found for correlationId: {}, response will be ignored", correlationId);
+        if (pendingResponses.complete(correlationId, message.getPayload())) {
+            log.debug("Found pending request for correlationId: {}, emitted response", correlationId);
+            return true;
         }
+        log.debug("No pending request found on this instance for correlationId: {}", correlationId);
+        return false;
     }
 
     /**
@@ -120,9 +162,7 @@ public class KafkaService {
      * @return A Mono<Void> that completes when the send operation is acknowledged (or fails).
      */
     public <T> Mono<Void> send(String topic, String key, T message) {
-        return Mono.fromFuture(() ->
-                        kafkaTemplate.send(topic, key, message).toCompletableFuture()
-                )
+        return kafkaProducer.send(topic, key, message)
                 .doOnSuccess(result -> log.debug("Message sent to topic {} with key {}", topic, key))
                 .doOnError(error -> log.error("Error sending message to topic {} with key {}", topic, key, error))
                 .then();
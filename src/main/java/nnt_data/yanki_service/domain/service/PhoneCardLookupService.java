@@ -0,0 +1,142 @@
+package nnt_data.yanki_service.domain.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserPhoneCardView;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resuelve la tarjeta asociada a cada teléfono para el flujo de transferencias.
+ * <p>
+ * Consulta primero su propia caché (L1 + Redis) y resuelve todos los teléfonos que falten
+ * con una sola consulta {@code $in} que solo proyecta teléfono y tarjeta. En caché, la cadena
+ * vacía representa un usuario existente sin tarjeta asociada. Los teléfonos que la base de datos
+ * no encuentra quedan marcados como inexistentes durante un TTL corto y no se vuelven a consultar.
+ * <p>
+ * El teléfono no es único en {@code user_yanki}: si la consulta devuelve más de un usuario para un
+ * teléfono, ese teléfono se resuelve como duplicado, no se cachea y la transferencia se rechaza en
+ * lugar de elegir una de las tarjetas. Por eso las altas y asociaciones invalidan la entrada en vez
+ * de sobrescribirla: la siguiente consulta vuelve a Mongo y ve todos los usuarios del teléfono.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PhoneCardLookupService {
+
+    private static final String NO_CARD = "";
+
+    private final UserYankiRepository userYankiRepository;
+    private final TwoLevelCache<String> phoneCardCache;
+
+    @Value("${redis.ttl.phone-cards:PT1H}")
+    private Duration phoneCardCacheTtl;
+
+    private String generatePhoneCardCacheKey(String telefono) {
+        return "phone-card:" + telefono;
+    }
+
+    /**
+     * @param telefonos Teléfonos a resolver
+     * @return Mono con la tarjeta de cada teléfono encontrado; los teléfonos sin usuario no aparecen en el mapa
+     */
+    public Mono<Map<String, PhoneCard>> resolve(Collection<String> telefonos) {
+        Set<String> distinct = new LinkedHashSet<>(telefonos);
+        distinct.removeIf(telefono -> phoneCardCache.isKnownAbsent(generatePhoneCardCacheKey(telefono)));
+        return Flux.fromIterable(distinct)
+                .flatMap(telefono -> phoneCardCache.get(generatePhoneCardCacheKey(telefono))
+                        .map(card -> new PhoneCard(telefono, card.isEmpty() ? null : card)))
+                .collectMap(PhoneCard::telefono)
+                .flatMap(cached -> {
+                    List<String> missing = distinct.stream()
+                            .filter(telefono -> !cached.containsKey(telefono))
+                            .toList();
+                    if (missing.isEmpty()) {
+                        return Mono.just(cached);
+                    }
+                    log.debug("Resolviendo {} teléfonos en base de datos", missing.size());
+                    return userYankiRepository.findByTelefonoIn(missing)
+                            .collectMultimap(UserPhoneCardView::getTelefono)
+                            .flatMapMany(byPhone -> Flux.fromIterable(byPhone.entrySet()))
+                            .flatMap(entry -> entry.getValue().size() > 1
+                                    ? Mono.just(duplicated(entry.getKey(), entry.getValue().size()))
+                                    : cachePhoneCard(entry.getValue().iterator().next()))
+                            .collectList()
+                            .map(loaded -> {
+                                Map<String, PhoneCard> result = new HashMap<>(cached);
+                                loaded.forEach(phoneCard -> result.put(phoneCard.telefono(), phoneCard));
+                                missing.stream()
+                                        .filter(telefono -> !result.containsKey(telefono))
+                                        .forEach(telefono -> phoneCardCache.markAbsent(generatePhoneCardCacheKey(telefono)));
+                                return result;
+                            });
+                });
+    }
+
+    /**
+     * Invalida la tarjeta cacheada de un teléfono (y su entrada negativa) tras un alta o una asociación.
+     */
+    public Mono<Void> invalidate(String telefono) {
+        return phoneCardCache.evict(generatePhoneCardCacheKey(telefono));
+    }
+
+    /**
+     * Precarga la tarjeta de cada teléfono sin pisar entradas existentes.
+     *
+     * @return Número de teléfonos escritos en Redis
+     */
+    public Mono<Long> warmUp(List<UserYankiEntity> users) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        Set<String> repeated = new HashSet<>();
+        users.forEach(user -> {
+            String key = generatePhoneCardCacheKey(user.getTelefono());
+            if (entries.put(key, user.getTarjetaAsociada() == null ? NO_CARD : user.getTarjetaAsociada()) != null) {
+                repeated.add(key);
+            }
+        });
+        // Un teléfono repetido en la muestra no se precarga: se resuelve contra Mongo
+        repeated.forEach(entries::remove);
+        return phoneCardCache.preload(entries, phoneCardCacheTtl);
+    }
+
+    private Mono<PhoneCard> cachePhoneCard(UserPhoneCardView view) {
+        PhoneCard phoneCard = new PhoneCard(view.getTelefono(), view.getTarjetaAsociada());
+        return phoneCardCache.put(generatePhoneCardCacheKey(phoneCard.telefono()),
+                        phoneCard.hasCard() ? phoneCard.tarjetaAsociada() : NO_CARD,
+                        phoneCardCacheTtl)
+                .thenReturn(phoneCard);
+    }
+
+    private static PhoneCard duplicated(String telefono, int users) {
+        log.error("El teléfono {} está registrado en {} usuarios Yanki; no se resuelve su tarjeta", telefono, users);
+        return new PhoneCard(telefono, null, true);
+    }
+
+    /**
+     * @param duplicado true si el teléfono pertenece a más de un usuario y no debe usarse
+     */
+    public record PhoneCard(String telefono, String tarjetaAsociada, boolean duplicado) {
+        public PhoneCard(String telefono, String tarjetaAsociada) {
+            this(telefono, tarjetaAsociada, false);
+        }
+
+        public boolean hasCard() {
+            return tarjetaAsociada != null;
+        }
+    }
+}
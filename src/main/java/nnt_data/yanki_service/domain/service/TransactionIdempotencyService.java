@@ -0,0 +1,241 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.exception.IdempotencyKeyInProgressException;
+import nnt_data.yanki_service.domain.exception.IdempotencyKeyReuseException;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplica transferencias reintentadas con la misma Idempotency-Key.
+ * <ul>
+ *     <li>En esta instancia, los reintentos mientras la original sigue en curso se unen al mismo Mono.</li>
+ *     <li>El resultado terminado se guarda en Redis y se devuelve sin volver a Kafka ni a Mongo.</li>
+ *     <li>Entre instancias, una reclamación {@code SET NX} evita que dos nodos procesen la misma clave;
+ *     el que no la obtiene espera el resultado del otro.</li>
+ * </ul>
+ * La huella de la solicitud (tipo, teléfonos y monto) detecta claves reutilizadas con otros datos.
+ * <p>
+ * La reclamación dura el timeout de Kafka más un margen y se renueva mientras la transferencia
+ * sigue en curso, así que no caduca a mitad de una ejecución lenta y deja pasar a otro nodo.
+ */
+@Service
+@Slf4j
+public class TransactionIdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:transaction:";
+
+    private final ReactiveRedisTemplate<String, TransactionYanki> resultTemplate;
+    private final ReactiveStringRedisTemplate claimTemplate;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Duration resultTtl;
+    private final Duration claimTtl;
+    private final Duration claimRenewInterval;
+    private final Duration pollInterval;
+    private final Counter executed;
+    private final Counter joined;
+    private final Counter replayed;
+    private final Counter rejected;
+
+    public TransactionIdempotencyService(
+            @Qualifier("transactionRedisTemplate") ReactiveRedisTemplate<String, TransactionYanki> resultTemplate,
+            ReactiveStringRedisTemplate claimTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${yanki.idempotency.ttl:PT24H}") Duration resultTtl,
+            @Value("${kafka.timeout:30}") long kafkaTimeout,
+            @Value("${yanki.idempotency.claim-margin:PT5S}") Duration claimMargin,
+            @Value("${yanki.idempotency.poll-interval:PT0.2S}") Duration pollInterval) {
+        this.resultTemplate = resultTemplate;
+        this.claimTemplate = claimTemplate;
+        this.resultTtl = resultTtl;
+        this.claimTtl = Duration.ofSeconds(kafkaTimeout).plus(claimMargin);
+        this.claimRenewInterval = claimTtl.dividedBy(3);
+        this.pollInterval = pollInterval;
+        this.executed = requests(meterRegistry, "executed");
+        this.joined = requests(meterRegistry, "joined");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.rejected = requests(meterRegistry, "rejected");
+    }
+
+    /**
+     * Ejecuta la transferencia una sola vez por Idempotency-Key.
+     *
+     * @param idempotencyKey Clave enviada por el cliente; sin clave se ejecuta directamente
+     * @param request        Transferencia solicitada
+     * @param action         Procesamiento real de la transferencia
+     * @return Mono con la transacción original o la recién creada
+     */
+    public Mono<TransactionYanki> execute(String idempotencyKey,
+                                         TransactionYanki request,
+                                         Supplier<Mono<TransactionYanki>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        return Mono.defer(() -> {
+            String fingerprint = fingerprint(request);
+            InFlight created = new InFlight(fingerprint);
+            created.result = resolve(idempotencyKey, fingerprint, action)
+                    .doFinally(signal -> inFlight.remove(idempotencyKey, created))
+                    .cache();
+            InFlight current = inFlight.putIfAbsent(idempotencyKey, created);
+            if (current == null) {
+                return created.result;
+            }
+            if (!current.fingerprint.equals(fingerprint)) {
+                rejected.increment();
+                return Mono.error(new IdempotencyKeyReuseException(idempotencyKey));
+            }
+            joined.increment();
+            return current.result;
+        });
+    }
+
+    private Mono<TransactionYanki> resolve(String idempotencyKey,
+                                           String fingerprint,
+                                           Supplier<Mono<TransactionYanki>> action) {
+        return storedResult(idempotencyKey, fingerprint)
+                .doOnNext(stored -> replayed.increment())
+                .switchIfEmpty(Mono.defer(() -> claimAndExecute(idempotencyKey, fingerprint, action)));
+    }
+
+    private Mono<TransactionYanki> storedResult(String idempotencyKey, String fingerprint) {
+        return resultTemplate.opsForValue()
+                .get(resultKey(idempotencyKey))
+                .flatMap(stored -> fingerprint.equals(fingerprint(stored))
+                        ? Mono.just(stored)
+                        : rejectReuse(idempotencyKey));
+    }
+
+    private Mono<TransactionYanki> claimAndExecute(String idempotencyKey,
+                                                   String fingerprint,
+                                                   Supplier<Mono<TransactionYanki>> action) {
+        String claimKey = claimKey(idempotencyKey);
+        return claimTemplate.opsForValue()
+                .setIfAbsent(claimKey, fingerprint, claimTtl)
+                .flatMap(claimed -> claimed
+                        ? executeAndStore(idempotencyKey, action)
+                        : awaitPeer(idempotencyKey, fingerprint));
+    }
+
+    private Mono<TransactionYanki> executeAndStore(String idempotencyKey, Supplier<Mono<TransactionYanki>> action) {
+        executed.increment();
+        return Mono.defer(() -> {
+                    Disposable renewal = renewClaim(idempotencyKey);
+                    return action.get().doFinally(signal -> renewal.dispose());
+                })
+                // La transferencia falló: la clave debe quedar libre para que el cliente reintente
+                .onErrorResume(error -> claimTemplate.delete(claimKey(idempotencyKey))
+                        .onErrorResume(ignored -> Mono.empty())
+                        .then(Mono.error(error)))
+                .flatMap(result -> storeResult(idempotencyKey, result));
+    }
+
+    /**
+     * Prolonga la reclamación cada tercio de su TTL hasta que se libere el {@link Disposable}.
+     */
+    private Disposable renewClaim(String idempotencyKey) {
+        return Flux.interval(claimRenewInterval)
+                .concatMap(tick -> claimTemplate.expire(claimKey(idempotencyKey), claimTtl)
+                        .doOnError(error -> log.warn("No se pudo renovar la reclamación de la Idempotency-Key {}",
+                                idempotencyKey, error))
+                        .onErrorResume(error -> Mono.empty()))
+                .subscribe();
+    }
+
+    /**
+     * La transferencia ya se ejecutó: si no se puede guardar el resultado, la reclamación se
+     * prolonga hasta el TTL del resultado, para que un reintento no la repita durante ese tiempo,
+     * y se devuelve igualmente el resultado.
+     */
+    private Mono<TransactionYanki> storeResult(String idempotencyKey, TransactionYanki result) {
+        return resultTemplate.opsForValue()
+                .set(resultKey(idempotencyKey), result, resultTtl)
+                .retryWhen(Retry.backoff(2, Duration.ofMillis(100)))
+                .doOnError(error -> log.error("No se pudo guardar el resultado de la Idempotency-Key {}; "
+                        + "la reclamación se mantiene {}", idempotencyKey, resultTtl, error))
+                .onErrorResume(error -> claimTemplate.expire(claimKey(idempotencyKey), resultTtl)
+                        .onErrorResume(ignored -> Mono.just(false)))
+                .thenReturn(result);
+    }
+
+    /**
+     * Otra instancia reclamó la clave: espera su resultado hasta que caduque la reclamación.
+     */
+    private Mono<TransactionYanki> awaitPeer(String idempotencyKey, String fingerprint) {
+        long maxPolls = Math.max(1, claimTtl.toMillis() / Math.max(1, pollInterval.toMillis()));
+        return claimTemplate.opsForValue()
+                .get(claimKey(idempotencyKey))
+                .flatMap(claimed -> claimed.equals(fingerprint) ? Mono.empty() : rejectReuse(idempotencyKey))
+                .thenMany(Flux.interval(pollInterval)
+                        .take(maxPolls)
+                        .concatMap(attempt -> storedResult(idempotencyKey, fingerprint)))
+                .next()
+                .doOnNext(stored -> joined.increment())
+                .switchIfEmpty(Mono.error(new IdempotencyKeyInProgressException(idempotencyKey)));
+    }
+
+    private <T> Mono<T> rejectReuse(String idempotencyKey) {
+        rejected.increment();
+        log.warn("Idempotency-Key reutilizada con datos distintos: {}", idempotencyKey);
+        return Mono.error(new IdempotencyKeyReuseException(idempotencyKey));
+    }
+
+    static String fingerprint(TransactionYanki transaction) {
+        BigDecimal monto = transaction.getMonto();
+        String canonical = String.join("|",
+                String.valueOf(transaction.getType()),
+                String.valueOf(transaction.getTelefonoOrigen()),
+                String.valueOf(transaction.getTelefonoDestino()),
+                monto == null ? "null" : monto.stripTrailingZeros().toPlainString());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String resultKey(String idempotencyKey) {
+        return KEY_PREFIX + idempotencyKey;
+    }
+
+    private static String claimKey(String idempotencyKey) {
+        return KEY_PREFIX + idempotencyKey + ":claim";
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("yanki.idempotency.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class InFlight {
+        private final String fingerprint;
+        private Mono<TransactionYanki> result;
+
+        private InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
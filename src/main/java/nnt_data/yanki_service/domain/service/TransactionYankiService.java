@@ -2,18 +2,43 @@ package nnt_data.yanki_service.domain.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.service.PhoneCardLookupService.PhoneCard;
+import nnt_data.yanki_service.entity.EstadoTransferencia;
+import nnt_data.yanki_service.entity.MovimientoHistorial;
+import nnt_data.yanki_service.entity.ResultadoTransferencia;
 import nnt_data.yanki_service.entity.Transaction;
 import nnt_data.yanki_service.entity.TransactionYanki;
 import nnt_data.yanki_service.entity.YankiTransactionRequest;
+import nnt_data.yanki_service.infrastructure.metrics.TransferStageMetrics;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.journal.TransactionWriteBehind;
 import nnt_data.yanki_service.infrastructure.persistence.mapper.TransactionYankiMapper;
+import nnt_data.yanki_service.infrastructure.persistence.redis.TransferStatusStore;
 import nnt_data.yanki_service.infrastructure.persistence.repository.TransactionYankiRepository;
-import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 
 @Service
@@ -21,10 +46,14 @@ import java.util.concurrent.TimeoutException;
 @RequiredArgsConstructor
 public class TransactionYankiService {
     private final TransactionYankiRepository transactionYankiRepository;
-    private final UserYankiRepository userYankiRepository;
+    private final PhoneCardLookupService phoneCardLookupService;
     private final KafkaService kafkaService;
     private final TransactionYankiMapper transactionYankiMapper;
-    private final ReactiveRedisTemplate<String, TransactionYanki> redisTemplate;
+    private final TwoLevelCache<TransactionYanki> transactionCache;
+    private final TransferStatusStore transferStatusStore;
+    private final TransactionWriteBehind transactionWriteBehind;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final TransferStageMetrics stageMetrics;
 
     @Value("${redis.ttl.transactions:PT24H}")
     private Duration transactionCacheTtl;
@@ -38,21 +67,66 @@ public class TransactionYankiService {
     @Value("${kafka.timeout:30}")
     private long kafkaTimeout;
 
+    @Value("${yanki.async.status-ttl:PT24H}")
+    private Duration asyncStatusTtl;
+
+    @Value("${yanki.async.claim-ttl:PT30S}")
+    private Duration asyncClaimTtl;
+
+    @Value("${yanki.async.poll-interval:PT0.5S}")
+    private Duration asyncPollInterval;
+
+    @Value("${yanki.async.follow-timeout:PT5M}")
+    private Duration asyncFollowTimeout;
+
+    @Value("${yanki.bulk.max-items:10000}")
+    private int bulkMaxItems;
+
+    @Value("${yanki.bulk.lookup-batch-size:200}")
+    private int bulkLookupBatchSize;
+
+    @Value("${yanki.bulk.bank-concurrency:32}")
+    private int bulkBankConcurrency;
+
+    @Value("${yanki.bulk.write-batch-size:500}")
+    private int bulkWriteBatchSize;
+
+    @Value("${yanki.bulk.write-window:PT0.05S}")
+    private Duration bulkWriteWindow;
+
+    @Value("${yanki.bulk.write-retries:3}")
+    private int bulkWriteRetries;
+
+    @Value("${yanki.bulk.write-retry-backoff:PT0.2S}")
+    private Duration bulkWriteRetryBackoff;
+
+    private static final int HISTORY_MAX_PAGE_SIZE = 1000;
+
+    private static final Comparator<TransactionYankiEntity> HISTORY_ORDER = Comparator
+            .comparing(TransactionYankiEntity::getFecha, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(TransactionYankiEntity::getId, Comparator.reverseOrder());
+
     private String generateTransactionCacheKey(String transactionId) {
         return "transaction:" + transactionId;
     }
 
     private Mono<TransactionYanki> cacheTransaction(TransactionYanki transaction) {
-        return redisTemplate.opsForValue()
-                .set(generateTransactionCacheKey(transaction.getId()),
+        return stageMetrics.time(TransferStageMetrics.REDIS_SET,
+                transactionCache.put(generateTransactionCacheKey(transaction.getId()),
                         transaction,
-                        transactionCacheTtl)
-                .thenReturn(transaction);
+                        transactionCacheTtl));
     }
 
-    private Mono<TransactionYanki> getFromCache(String transactionId) {
-        return redisTemplate.opsForValue()
-                .get(generateTransactionCacheKey(transactionId));
+    /**
+     * Precarga en caché transacciones leídas de la base de datos sin pisar entradas existentes.
+     *
+     * @return Número de transacciones escritas en Redis
+     */
+    public Mono<Long> warmUp(List<TransactionYankiEntity> transactions) {
+        Map<String, TransactionYanki> entries = new LinkedHashMap<>();
+        transactions.forEach(entity ->
+                entries.put(generateTransactionCacheKey(entity.getId()), transactionYankiMapper.toDomain(entity)));
+        return transactionCache.preload(entries, transactionCacheTtl);
     }
 
     private Mono<Void> validateTransaction(TransactionYanki transaction) {
@@ -83,8 +157,9 @@ public class TransactionYankiService {
 
     public Mono<TransactionYanki> createTransaction(Mono<TransactionYanki> transactionYankiMono) {
         return transactionYankiMono
-                .flatMap(transaction -> validateTransaction(transaction)
-                        .then(processTransaction(transaction)))
+                .flatMap(transaction -> stageMetrics.time(TransferStageMetrics.TOTAL,
+                        validateTransaction(transaction)
+                                .then(concurrencyLimiter.execute(() -> processTransaction(transaction)))))
                 .doOnSuccess(transaction ->
                         log.info("Transacción creada exitosamente: {}", transaction.getId()))
                 .doOnError(error ->
@@ -92,43 +167,49 @@ public class TransactionYankiService {
     }
 
     private Mono<TransactionYanki> processTransaction(TransactionYanki transaction) {
-        return userYankiRepository.findByTelefono(transaction.getTelefonoOrigen())
-                .switchIfEmpty(Mono.error(
-                        new IllegalArgumentException("Usuario origen no encontrado")))
-                .flatMap(userOrigen -> {
-                    if (transaction.getType() == TransactionYanki.TypeEnum.SPENT
-                            && userOrigen.getTarjetaAsociada() == null) {
-                        return Mono.error(new IllegalArgumentException(
-                                "Se requiere una tarjeta asociada para realizar gastos"));
-                    }
-
-                    return validateDestinationUser(transaction, userOrigen);
-                });
+        return stageMetrics.time(TransferStageMetrics.LOOKUP, phoneCardLookupService.resolve(
+                        List.of(transaction.getTelefonoOrigen(), transaction.getTelefonoDestino())))
+                .flatMap(cards -> buildBankRequest(transaction, cards))
+                .flatMap(request -> processKafkaTransaction(request, transaction));
     }
 
-    private Mono<TransactionYanki> validateDestinationUser(
-            TransactionYanki transaction,
-            nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity userOrigen) {
-        return userYankiRepository.findByTelefono(transaction.getTelefonoDestino())
-                .switchIfEmpty(Mono.error(
-                        new IllegalArgumentException("Usuario destino no encontrado")))
-                .flatMap(userDestino -> {
-                    if (userDestino.getTarjetaAsociada() == null) {
-                        return Mono.error(new IllegalArgumentException(
-                                "Usuario destino requiere una tarjeta asociada"));
-                    }
+    /**
+     * Valida origen y destino con las tarjetas ya resueltas y arma la solicitud al banco.
+     */
+    private Mono<YankiTransactionRequest> buildBankRequest(TransactionYanki transaction, Map<String, PhoneCard> cards) {
+        PhoneCard userOrigen = cards.get(transaction.getTelefonoOrigen());
+        if (userOrigen == null) {
+            return Mono.error(new IllegalArgumentException("Usuario origen no encontrado"));
+        }
+        if (userOrigen.duplicado()) {
+            return Mono.error(new IllegalArgumentException(
+                    "El teléfono origen está asociado a más de un usuario"));
+        }
+        if (transaction.getType() == TransactionYanki.TypeEnum.SPENT && !userOrigen.hasCard()) {
+            return Mono.error(new IllegalArgumentException(
+                    "Se requiere una tarjeta asociada para realizar gastos"));
+        }
 
-                    return prepareTransactionRequest(
-                            userOrigen.getTarjetaAsociada(),
-                            userDestino.getTarjetaAsociada(),
-                            transaction)
-                            .flatMap(request -> processKafkaTransaction(request, transaction));
-                });
+        PhoneCard userDestino = cards.get(transaction.getTelefonoDestino());
+        if (userDestino == null) {
+            return Mono.error(new IllegalArgumentException("Usuario destino no encontrado"));
+        }
+        if (userDestino.duplicado()) {
+            return Mono.error(new IllegalArgumentException(
+                    "El teléfono destino está asociado a más de un usuario"));
+        }
+        if (!userDestino.hasCard()) {
+            return Mono.error(new IllegalArgumentException(
+                    "Usuario destino requiere una tarjeta asociada"));
+        }
+
+        return prepareTransactionRequest(
+                userOrigen.tarjetaAsociada(),
+                userDestino.tarjetaAsociada(),
+                transaction);
     }
 
-    private Mono<TransactionYanki> processKafkaTransaction(
-            YankiTransactionRequest request,
-            TransactionYanki transaction) {
+    private Mono<Transaction> sendToBank(YankiTransactionRequest request) {
         return kafkaService.sendAndReceive(
                         transactionRequestTopic,
                         transactionResponseTopic,
@@ -138,19 +219,425 @@ public class TransactionYankiService {
                 )
                 .onErrorResume(TimeoutException.class, error ->
                         Mono.error(new RuntimeException(
-                                "Tiempo de espera agotado para la transacción bancaria")))
-                .then(transactionYankiMapper.toEntity(transaction))
-                .flatMap(transactionYankiRepository::save)
-                .flatMap(transactionYankiMapper::toDomain)
+                                "Tiempo de espera agotado para la transacción bancaria")));
+    }
+
+    private Mono<TransactionYanki> processKafkaTransaction(
+            YankiTransactionRequest request,
+            TransactionYanki transaction) {
+        return stageMetrics.time(TransferStageMetrics.BANK, sendToBank(request))
+                .then(Mono.fromSupplier(() -> transactionYankiMapper.toEntity(transaction)))
+                .doOnNext(entity -> entity.setFecha(Instant.now()))
+                .flatMap(this::persistConfirmed);
+    }
+
+    /**
+     * Con la escritura diferida activada, la transacción confirmada se registra en el diario local y
+     * se responde sin esperar a Mongo; si el diario está saturado se escribe de forma síncrona.
+     */
+    private Mono<TransactionYanki> persistConfirmed(TransactionYankiEntity entity) {
+        Mono<TransactionYanki> saveNow = stageMetrics.time(TransferStageMetrics.MONGO_SAVE,
+                        Mono.defer(() -> transactionYankiRepository.save(entity)))
+                .map(transactionYankiMapper::toDomain)
                 .flatMap(this::cacheTransaction);
+        if (!transactionWriteBehind.isEnabled()) {
+            return saveNow;
+        }
+        return stageMetrics.time(TransferStageMetrics.JOURNAL_APPEND, transactionWriteBehind.enqueue(entity))
+                .map(transactionYankiMapper::toDomain)
+                .onErrorResume(RejectedExecutionException.class, error -> {
+                    log.warn("{}; guardando la transacción de forma síncrona", error.getMessage());
+                    return saveNow;
+                });
+    }
+
+    /**
+     * Modo asíncrono: valida, publica la solicitud al banco y devuelve la transacción con su id sin
+     * esperar la respuesta. El id de la transacción es también el correlationId del mensaje, y el
+     * estado pendiente se guarda en Redis para que cualquier instancia complete o consulte la transferencia.
+     *
+     * @param transactionYankiMono Transferencia solicitada
+     * @return Mono con la transacción aceptada (con id) en cuanto Kafka confirma la publicación
+     */
+    public Mono<TransactionYanki> createTransactionAsync(Mono<TransactionYanki> transactionYankiMono) {
+        return transactionYankiMono
+                .flatMap(transaction -> validateTransaction(transaction)
+                        .then(phoneCardLookupService.resolve(
+                                List.of(transaction.getTelefonoOrigen(), transaction.getTelefonoDestino())))
+                        .flatMap(cards -> buildBankRequest(transaction, cards))
+                        .flatMap(request -> acceptAsync(transaction, request)))
+                .doOnSuccess(transaction ->
+                        log.info("Transacción aceptada en modo asíncrono: {}", transaction.getId()))
+                .doOnError(error ->
+                        log.error("Error al aceptar la transacción asíncrona: {}", error.getMessage()));
+    }
+
+    private Mono<TransactionYanki> acceptAsync(TransactionYanki transaction, YankiTransactionRequest request) {
+        String id = new ObjectId().toHexString();
+        TransactionYanki accepted = transactionYankiMapper.toDomain(transactionYankiMapper.toEntity(transaction)).id(id);
+        EstadoTransferencia pending = new EstadoTransferencia(id, EstadoTransferencia.EstadoEnum.PENDIENTE)
+                .transaccion(accepted)
+                .actualizado(new Date());
+        return transferStatusStore.save(pending, asyncStatusTtl)
+                .then(kafkaService.sendRequest(transactionRequestTopic, id, request))
+                .onErrorResume(error -> finishAsync(pending, EstadoTransferencia.EstadoEnum.FALLIDA, null,
+                                "No se pudo enviar la solicitud al banco")
+                        .onErrorResume(ignored -> Mono.empty())
+                        .then(Mono.error(error)))
+                .thenReturn(accepted);
+    }
+
+    /**
+     * Completa una transferencia asíncrona con la respuesta del banco recibida en cualquier instancia.
+     *
+     * @param correlationId Id de la transacción
+     * @param bankResponse  Payload de la respuesta del banco
+     * @return Mono con true si el correlationId corresponde a una transferencia asíncrona
+     */
+    public Mono<Boolean> completeAsyncTransaction(String correlationId, Object bankResponse) {
+        return transferStatusStore.find(correlationId)
+                .flatMap(status -> {
+                    if (status.getEstado() != EstadoTransferencia.EstadoEnum.PENDIENTE) {
+                        log.debug("Respuesta duplicada para la transacción asíncrona {}", correlationId);
+                        return Mono.just(true);
+                    }
+                    return transferStatusStore.claimFinalization(correlationId, asyncClaimTtl)
+                            .flatMap(claimed -> !claimed
+                                    ? Mono.just(true)
+                                    : isExpired(status)
+                                    ? expire(status).thenReturn(true)
+                                    : persistAsync(status).thenReturn(true));
+                })
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<EstadoTransferencia> persistAsync(EstadoTransferencia status) {
+        // El id de la transacción se reutiliza como _id: una reentrega del mensaje sobrescribe el mismo documento
+        return Mono.fromSupplier(() -> transactionYankiMapper.toEntity(status.getTransaccion()))
+                .doOnNext(entity -> entity.setFecha(Instant.now()))
+                .flatMap(transactionYankiRepository::save)
+                .map(transactionYankiMapper::toDomain)
+                .flatMap(this::cacheTransaction)
+                .flatMap(saved -> finishAsync(status, EstadoTransferencia.EstadoEnum.COMPLETADA, saved, null))
+                .doOnSuccess(finished -> log.info("Transacción asíncrona completada: {}", status.getId()))
+                .onErrorResume(error -> {
+                    log.error("Error al completar la transacción asíncrona {}: {}", status.getId(), error.getMessage());
+                    return finishAsync(status, EstadoTransferencia.EstadoEnum.FALLIDA, null, error.getMessage());
+                });
+    }
+
+    /**
+     * Estado actual de una transferencia asíncrona. Un estado pendiente que superó el timeout del
+     * banco se cierra como fallido, igual que en el modo síncrono.
+     */
+    public Mono<EstadoTransferencia> findTransferStatus(String id) {
+        return transferStatusStore.find(id)
+                .flatMap(status -> status.getEstado() == EstadoTransferencia.EstadoEnum.PENDIENTE && isExpired(status)
+                        ? transferStatusStore.claimFinalization(id, asyncClaimTtl)
+                                .flatMap(claimed -> claimed ? expire(status) : transferStatusStore.find(id))
+                        : Mono.just(status));
+    }
+
+    /**
+     * Emite el estado actual y, si sigue pendiente, el resultado final cuando se conozca. El
+     * seguimiento termina si el estado desaparece (TTL) o tras {@code yanki.async.follow-timeout}.
+     *
+     * @return Mono vacío si la transferencia no existe; si existe, el flujo de estados
+     */
+    public Mono<Flux<EstadoTransferencia>> followTransferStatus(String id) {
+        return findTransferStatus(id)
+                .map(initial -> initial.getEstado() != EstadoTransferencia.EstadoEnum.PENDIENTE
+                        ? Flux.just(initial)
+                        : Flux.concat(Mono.just(initial), Flux.interval(asyncPollInterval)
+                                .concatMap(tick -> findTransferStatus(id)
+                                        .map(Optional::of)
+                                        .defaultIfEmpty(Optional.empty()))
+                                .takeUntil(status -> status.isEmpty()
+                                        || status.get().getEstado() != EstadoTransferencia.EstadoEnum.PENDIENTE)
+                                .flatMap(Mono::justOrEmpty)
+                                .filter(status -> status.getEstado() != EstadoTransferencia.EstadoEnum.PENDIENTE)
+                                .take(asyncFollowTimeout)));
+    }
+
+    private boolean isExpired(EstadoTransferencia status) {
+        Instant deadline = status.getActualizado().toInstant().plusSeconds(kafkaTimeout);
+        return Instant.now().isAfter(deadline);
+    }
+
+    private Mono<EstadoTransferencia> expire(EstadoTransferencia status) {
+        return finishAsync(status, EstadoTransferencia.EstadoEnum.FALLIDA, null,
+                "Tiempo de espera agotado para la transacción bancaria");
+    }
+
+    private Mono<EstadoTransferencia> finishAsync(EstadoTransferencia status,
+                                                  EstadoTransferencia.EstadoEnum estado,
+                                                  TransactionYanki saved,
+                                                  String mensaje) {
+        return transferStatusStore.save(new EstadoTransferencia(status.getId(), estado)
+                        .transaccion(saved != null ? saved : status.getTransaccion())
+                        .mensaje(mensaje)
+                        .actualizado(new Date()),
+                asyncStatusTtl);
+    }
+
+    /**
+     * Procesa un lote de transferencias y emite el resultado de cada una a medida que termina.
+     * <ul>
+     *     <li>Los teléfonos se resuelven por bloques con una sola consulta por bloque.</li>
+     *     <li>Las solicitudes al banco viajan con concurrencia acotada por los tópicos de siempre.</li>
+     *     <li>Las transferencias aceptadas se insertan por bloques con un solo {@code insertMany} y se cachean en una sola ráfaga.</li>
+     *     <li>Solo se leen {@code yanki.bulk.max-items} transferencias; si el lote trae más, se rechaza una única
+     *     transferencia adicional y el resto no se lee.</li>
+     * </ul>
+     *
+     * @param transactions Transferencias del lote, en orden
+     * @return Flux con un resultado por transferencia, identificado por su índice en el lote
+     */
+    public Flux<ResultadoTransferencia> createTransactions(Flux<TransactionYanki> transactions) {
+        return transactions
+                .take(bulkMaxItems + 1L)
+                .index()
+                .buffer(bulkLookupBatchSize)
+                .concatMap(this::resolveBatch)
+                .flatMap(this::sendBulkItem, bulkBankConcurrency)
+                .groupBy(item -> item.entity != null)
+                .flatMap(group -> Boolean.TRUE.equals(group.key())
+                        ? group.bufferTimeout(bulkWriteBatchSize, bulkWriteWindow, true).concatMap(this::persistBatch)
+                        : group.map(item -> item.result))
+                .doOnComplete(() -> log.info("Lote de transferencias procesado"));
+    }
+
+    private Flux<BulkItem> resolveBatch(List<Tuple2<Long, TransactionYanki>> batch) {
+        List<String> telefonos = new ArrayList<>(batch.size() * 2);
+        for (Tuple2<Long, TransactionYanki> item : batch) {
+            if (item.getT1() < bulkMaxItems) {
+                telefonos.add(item.getT2().getTelefonoOrigen());
+                telefonos.add(item.getT2().getTelefonoDestino());
+            }
+        }
+        return phoneCardLookupService.resolve(telefonos)
+                .flatMapMany(cards -> Flux.fromIterable(batch)
+                        .concatMap(item -> {
+                            int indice = item.getT1().intValue();
+                            TransactionYanki transaction = item.getT2();
+                            if (indice >= bulkMaxItems) {
+                                return Mono.just(BulkItem.done(rejected(indice, transaction,
+                                        "El lote supera el máximo de " + bulkMaxItems + " transferencias")));
+                            }
+                            return validateTransaction(transaction)
+                                    .then(buildBankRequest(transaction, cards))
+                                    .map(request -> BulkItem.pending(indice, transaction, request))
+                                    .onErrorResume(IllegalArgumentException.class, error ->
+                                            Mono.just(BulkItem.done(rejected(indice, transaction, error.getMessage()))));
+                        }))
+                .onErrorResume(error -> Flux.fromIterable(batch)
+                        .map(item -> BulkItem.done(failed(item.getT1().intValue(), item.getT2(), error))));
+    }
+
+    private Mono<BulkItem> sendBulkItem(BulkItem item) {
+        if (item.request == null) {
+            return Mono.just(item);
+        }
+        return sendToBank(item.request)
+                .then(Mono.fromSupplier(() -> {
+                    TransactionYankiEntity entity = transactionYankiMapper.toEntity(item.transaction);
+                    // El id se asigna aquí para relacionar cada documento insertado con su posición en el lote
+                    entity.setId(new ObjectId().toHexString());
+                    entity.setFecha(Instant.now());
+                    return BulkItem.accepted(item.indice, item.transaction, entity);
+                }))
+                .onErrorResume(error -> Mono.just(BulkItem.done(failed(item.indice, item.transaction, error))));
+    }
+
+    private Flux<ResultadoTransferencia> persistBatch(List<BulkItem> batch) {
+        List<TransactionYankiEntity> entities = batch.stream().map(item -> item.entity).toList();
+        // insert(Iterable) es un único insertMany; saveAll haría un upsert por documento al llevar id
+        return transactionYankiRepository.insert(entities)
+                // Los ids ya están asignados: los upserts son idempotentes aunque el insertMany se aplicara a medias
+                .onErrorResume(error -> {
+                    log.warn("Falló el insertMany de {} transferencias confirmadas, reintentando con upserts: {}",
+                            entities.size(), error.getMessage());
+                    return Flux.defer(() -> transactionYankiRepository.saveAll(entities))
+                            .retryWhen(Retry.backoff(bulkWriteRetries, bulkWriteRetryBackoff));
+                })
+                .map(transactionYankiMapper::toDomain)
+                .collectMap(TransactionYanki::getId)
+                .flatMapMany(saved -> {
+                    Map<String, TransactionYanki> cacheEntries = new LinkedHashMap<>();
+                    saved.values().forEach(transaction ->
+                            cacheEntries.put(generateTransactionCacheKey(transaction.getId()), transaction));
+                    return transactionCache.putAll(cacheEntries, transactionCacheTtl)
+                            .onErrorResume(error -> {
+                                log.warn("No se pudo cachear el lote de transferencias: {}", error.getMessage());
+                                return Mono.empty();
+                            })
+                            .thenMany(Flux.fromIterable(batch)
+                                    .map(item -> created(item.indice, saved.get(item.entity.getId()))));
+                })
+                // El banco ya confirmó estas transferencias: nunca se informan como FALLIDA
+                .onErrorResume(error -> {
+                    log.error("No se pudo guardar el lote de {} transferencias confirmadas, se guardan una a una: {}",
+                            entities.size(), error.getMessage());
+                    return Flux.fromIterable(batch).concatMap(this::persistConfirmedItem);
+                });
+    }
+
+    private Mono<ResultadoTransferencia> persistConfirmedItem(BulkItem item) {
+        return persistConfirmed(item.entity)
+                .map(saved -> created(item.indice, saved))
+                .onErrorResume(error -> {
+                    log.error("Transferencia {} confirmada por el banco pendiente de registrar: {}",
+                            item.entity.getId(), error.getMessage());
+                    return Mono.just(created(item.indice, transactionYankiMapper.toDomain(item.entity))
+                            .mensaje("Transferencia confirmada por el banco; registro pendiente"));
+                });
+    }
+
+    private static ResultadoTransferencia created(int indice, TransactionYanki transaction) {
+        return new ResultadoTransferencia(indice, ResultadoTransferencia.EstadoEnum.CREADA)
+                .transaccion(transaction);
+    }
+
+    private static ResultadoTransferencia rejected(int indice, TransactionYanki transaction, String mensaje) {
+        return new ResultadoTransferencia(indice, ResultadoTransferencia.EstadoEnum.RECHAZADA)
+                .transaccion(transaction)
+                .mensaje(mensaje);
+    }
+
+    private static ResultadoTransferencia failed(int indice, TransactionYanki transaction, Throwable error) {
+        log.error("Error en la transferencia {} del lote: {}", indice, error.getMessage());
+        return new ResultadoTransferencia(indice, ResultadoTransferencia.EstadoEnum.FALLIDA)
+                .transaccion(transaction)
+                .mensaje(error.getMessage());
+    }
+
+    /**
+     * Estado intermedio de una transferencia del lote: pendiente del banco ({@code request}),
+     * aceptada y por persistir ({@code entity}) o ya resuelta ({@code result}).
+     */
+    private record BulkItem(int indice,
+                            TransactionYanki transaction,
+                            YankiTransactionRequest request,
+                            TransactionYankiEntity entity,
+                            ResultadoTransferencia result) {
+
+        static BulkItem pending(int indice, TransactionYanki transaction, YankiTransactionRequest request) {
+            return new BulkItem(indice, transaction, request, null, null);
+        }
+
+        static BulkItem accepted(int indice, TransactionYanki transaction, TransactionYankiEntity entity) {
+            return new BulkItem(indice, transaction, null, entity, null);
+        }
+
+        static BulkItem done(ResultadoTransferencia result) {
+            return new BulkItem(result.getIndice(), null, null, null, result);
+        }
+    }
+
+    /**
+     * Historial de movimientos de un teléfono, del más reciente al más antiguo, paginado por cursor.
+     * Cada página es un rango de índice leído como cursor reactivo de Mongo, así que la memoria no
+     * depende de la longitud del historial. Con {@link HistoryRole#TODOS} se mezclan en orden los
+     * movimientos enviados y recibidos, cada uno desde su propio índice.
+     *
+     * @param telefono Teléfono del monedero
+     * @param rol      ORIGEN, DESTINO o TODOS
+     * @param limite   Tamaño máximo de la página
+     * @param cursor   Cursor del último movimiento de la página anterior, o null para empezar
+     * @return Flux con los movimientos de la página
+     * @throws IllegalArgumentException si el rol, el límite o el cursor no son válidos
+     */
+    public Flux<MovimientoHistorial> findHistory(String telefono, String rol, int limite, String cursor) {
+        HistoryRole role = HistoryRole.parse(rol);
+        if (limite < 1 || limite > HISTORY_MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + HISTORY_MAX_PAGE_SIZE);
+        }
+        HistoryCursor after = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        Pageable page = PageRequest.of(0, limite);
+
+        Flux<TransactionYankiEntity> movimientos = switch (role) {
+            case ORIGEN -> historyAsOrigen(telefono, after, page);
+            case DESTINO -> historyAsDestino(telefono, after, page);
+            case TODOS -> Flux.mergeComparing(HISTORY_ORDER,
+                            historyAsOrigen(telefono, after, page),
+                            historyAsDestino(telefono, after, page))
+                    .take(limite);
+        };
+        return movimientos.map(entity -> new MovimientoHistorial(
+                        transactionYankiMapper.toDomain(entity), HistoryCursor.of(entity).encode())
+                .fecha(entity.getFecha() == null ? null : Date.from(entity.getFecha())));
+    }
+
+    private Flux<TransactionYankiEntity> historyAsOrigen(String telefono, HistoryCursor after, Pageable page) {
+        if (after == null) {
+            return transactionYankiRepository.findHistoryByTelefonoOrigen(telefono, page);
+        }
+        return after.fecha() == null
+                ? transactionYankiRepository.findHistoryByTelefonoOrigenWithoutFechaBefore(telefono, after.id(), page)
+                : transactionYankiRepository.findHistoryByTelefonoOrigenBefore(telefono, after.fecha(), after.id(), page);
+    }
+
+    private Flux<TransactionYankiEntity> historyAsDestino(String telefono, HistoryCursor after, Pageable page) {
+        if (after == null) {
+            return transactionYankiRepository.findHistoryByTelefonoDestino(telefono, page);
+        }
+        return after.fecha() == null
+                ? transactionYankiRepository.findHistoryByTelefonoDestinoWithoutFechaBefore(telefono, after.id(), page)
+                : transactionYankiRepository.findHistoryByTelefonoDestinoBefore(telefono, after.fecha(), after.id(), page);
+    }
+
+    public enum HistoryRole {
+        ORIGEN, DESTINO, TODOS;
+
+        static HistoryRole parse(String rol) {
+            if (rol == null || rol.isBlank()) {
+                return TODOS;
+            }
+            try {
+                return valueOf(rol.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rol de historial no válido: " + rol);
+            }
+        }
+    }
+
+    /**
+     * Posición en el historial: {@code (fecha, id)} del último movimiento entregado, codificada en
+     * Base64 URL para que el cliente la trate como un valor opaco. Los documentos anteriores a la
+     * fecha de registro no tienen fecha; su cursor la lleva vacía y se sigue paginando por id.
+     */
+    record HistoryCursor(Instant fecha, String id) {
+
+        private static final String NO_FECHA = "-";
+
+        static HistoryCursor of(TransactionYankiEntity entity) {
+            return new HistoryCursor(entity.getFecha(), entity.getId());
+        }
+
+        String encode() {
+            String raw = (fecha == null ? NO_FECHA : String.valueOf(fecha.toEpochMilli())) + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                String fecha = raw.substring(0, separator);
+                return new HistoryCursor(
+                        NO_FECHA.equals(fecha) ? null : Instant.ofEpochMilli(Long.parseLong(fecha)),
+                        raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de historial no válido", e);
+            }
+        }
     }
 
     public Mono<TransactionYanki> findTransactionById(String transactionId) {
-        return getFromCache(transactionId)
-                .switchIfEmpty(
-                        transactionYankiRepository.findById(transactionId)
-                                .flatMap(transactionYankiMapper::toDomain)
-                                .flatMap(this::cacheTransaction)
-                );
+        return transactionWriteBehind.findUnflushed(transactionId)
+                .switchIfEmpty(Mono.defer(() -> transactionCache.getOrLoad(generateTransactionCacheKey(transactionId),
+                        () -> transactionYankiRepository.findById(transactionId)
+                                .map(transactionYankiMapper::toDomain),
+                        transactionCacheTtl)));
     }
 }
\ No newline at end of file
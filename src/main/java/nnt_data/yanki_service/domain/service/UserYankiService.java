@@ -4,28 +4,49 @@ import lombok.extern.slf4j.Slf4j;
 import nnt_data.yanki_service.entity.DebitCardValidationRequest;
 import nnt_data.yanki_service.entity.DebitCardValidationResponse;
 import nnt_data.yanki_service.entity.UserYanki;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.cache.UserIdMembershipIndex;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
 import nnt_data.yanki_service.infrastructure.persistence.mapper.UserYankiMapper;
 import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class UserYankiService {
 
+    private static final String VALID_CARD = "1";
+    private static final String INVALID_CARD = "0";
+
     private final UserYankiRepository userYankiRepository;
     private final UserYankiMapper userYankiMapper;
     private final KafkaService kafkaService;
-    private final ReactiveRedisTemplate<String, UserYanki> userRedisTemplate;
+    private final TwoLevelCache<UserYanki> userCache;
+    private final TwoLevelCache<String> cardValidationCache;
+    private final UserIdMembershipIndex membershipIndex;
+    private final PhoneCardLookupService phoneCardLookupService;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
     @Value("${redis.ttl.users:PT24H}")
     private Duration userCacheTtl;
 
+    @Value("${yanki.card-validation.valid-ttl:PT10M}")
+    private Duration validCardTtl;
+
+    @Value("${yanki.card-validation.invalid-ttl:PT30S}")
+    private Duration invalidCardTtl;
+
     @Value("${kafka.topics.debit-card-validation-request:debit-card-validation-requests}")
     private String debitCardValidationRequestTopic;
 
@@ -36,11 +57,19 @@ public class UserYankiService {
             UserYankiRepository userYankiRepository,
             UserYankiMapper userYankiMapper,
             KafkaService kafkaService,
-            @Qualifier("userRedisTemplate") ReactiveRedisTemplate<String, UserYanki> userRedisTemplate) {
+            @Qualifier("userCache") TwoLevelCache<UserYanki> userCache,
+            @Qualifier("cardValidationCache") TwoLevelCache<String> cardValidationCache,
+            UserIdMembershipIndex membershipIndex,
+            PhoneCardLookupService phoneCardLookupService,
+            AdaptiveConcurrencyLimiter concurrencyLimiter) {
         this.userYankiRepository = userYankiRepository;
         this.userYankiMapper = userYankiMapper;
         this.kafkaService = kafkaService;
-        this.userRedisTemplate = userRedisTemplate;
+        this.userCache = userCache;
+        this.cardValidationCache = cardValidationCache;
+        this.membershipIndex = membershipIndex;
+        this.phoneCardLookupService = phoneCardLookupService;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
     private String generateUserCacheKey(String userId) {
@@ -48,35 +77,47 @@ public class UserYankiService {
     }
 
     private Mono<UserYanki> cacheUser(UserYanki user) {
-        return userRedisTemplate.opsForValue()
-                .set(generateUserCacheKey(user.getId()), user, userCacheTtl)
-                .thenReturn(user);
+        return userCache.put(generateUserCacheKey(user.getId()), user, userCacheTtl);
+    }
+
+    private String generateCardValidationCacheKey(String debitCardId) {
+        return "card-validation:" + debitCardId;
     }
 
     private Mono<Void> invalidateUserCache(String userId) {
-        return userRedisTemplate.opsForValue()
-                .delete(generateUserCacheKey(userId))
-                .then();
+        return userCache.evict(generateUserCacheKey(userId));
+    }
+
+    /**
+     * Precarga en caché usuarios leídos de la base de datos sin pisar entradas existentes.
+     *
+     * @return Número de usuarios escritos en Redis
+     */
+    public Mono<Long> warmUp(List<UserYankiEntity> users) {
+        Map<String, UserYanki> entries = new LinkedHashMap<>();
+        users.forEach(entity -> entries.put(generateUserCacheKey(entity.getId()), userYankiMapper.toDomain(entity)));
+        return userCache.preload(entries, userCacheTtl);
     }
 
     public Mono<UserYanki> createYankiUser(Mono<UserYanki> userYankiMono) {
         return userYankiMono
-                .flatMap(userYankiMapper::toEntity)
+                .map(userYankiMapper::toEntity)
                 .flatMap(userYankiRepository::save)
-                .flatMap(userYankiMapper::toDomain)
+                .map(userYankiMapper::toDomain)
+                .flatMap(user -> membershipIndex.add(user.getId()).thenReturn(user))
                 .flatMap(this::cacheUser)
+                // Quita la entrada negativa del teléfono, si alguien lo consultó antes del alta
+                .flatMap(user -> phoneCardLookupService.invalidate(user.getTelefono())
+                        .thenReturn(user))
                 .doOnSuccess(user -> log.info("Usuario Yanki creado exitosamente: {}", user.getId()))
                 .doOnError(error -> log.error("Error al crear usuario Yanki", error));
     }
 
     public Mono<UserYanki> findUserById(String userId) {
-        return userRedisTemplate.opsForValue()
-                .get(generateUserCacheKey(userId))
-                .switchIfEmpty(
-                        userYankiRepository.findById(userId)
-                                .flatMap(userYankiMapper::toDomain)
-                                .flatMap(this::cacheUser)
-                )
+        return userCache.getOrLoad(generateUserCacheKey(userId),
+                        () -> userYankiRepository.findById(userId)
+                                .map(userYankiMapper::toDomain),
+                        userCacheTtl)
                 .doOnSuccess(user -> log.debug("Usuario encontrado: {}", userId))
                 .doOnError(error -> log.error("Error al buscar usuario: {}", userId, error));
     }
@@ -93,15 +134,18 @@ public class UserYankiService {
                 .doOnError(error -> log.error("Error al asociar tarjeta", error));
     }
 
+    /**
+     * Valida la tarjeta con el banco o con el resultado cacheado de una validación anterior. Las
+     * validaciones concurrentes de la misma tarjeta comparten una sola petición Kafka; los resultados
+     * válidos e inválidos se cachean con TTL distintos. En caché, un valor {@code "1"} es una tarjeta
+     * válida y {@code "0"} seguido del mensaje del banco, una inválida.
+     */
     private Mono<DebitCardValidationResponse> validateDebitCard(DebitCardValidationRequest request) {
-        return kafkaService.sendAndReceive(
-                        debitCardValidationRequestTopic,
-                        debitCardValidationResponseTopic,
-                        request,
-                        DebitCardValidationResponse.class,
-                        Duration.ofSeconds(10)
-                )
-                .doOnNext(response -> log.debug("Respuesta de validación de tarjeta recibida: {}", response))
+        return cardValidationCache.getOrLoad(generateCardValidationCacheKey(request.getDebitCardId()),
+                        () -> concurrencyLimiter.execute(() -> requestDebitCardValidation(request))
+                                .map(UserYankiService::encodeValidation),
+                        cached -> cached.startsWith(VALID_CARD) ? validCardTtl : invalidCardTtl)
+                .map(UserYankiService::decodeValidation)
                 .flatMap(response -> {
                     if (!response.getIsValid()) {
                         return Mono.error(new IllegalArgumentException(
@@ -111,20 +155,80 @@ public class UserYankiService {
                 });
     }
 
+    /**
+     * Descarta el resultado cacheado de la validación de una tarjeta tras un cambio de estado.
+     */
+    public Mono<Void> invalidateDebitCardValidation(String debitCardId) {
+        return cardValidationCache.evict(generateCardValidationCacheKey(debitCardId));
+    }
+
+    private static String encodeValidation(DebitCardValidationResponse response) {
+        if (Boolean.TRUE.equals(response.getIsValid())) {
+            return VALID_CARD;
+        }
+        return INVALID_CARD + (response.getMessage() == null ? "" : response.getMessage());
+    }
+
+    private static DebitCardValidationResponse decodeValidation(String cached) {
+        DebitCardValidationResponse response = new DebitCardValidationResponse();
+        response.setIsValid(cached.startsWith(VALID_CARD));
+        if (!response.getIsValid()) {
+            response.setMessage(cached.substring(INVALID_CARD.length()));
+        }
+        return response;
+    }
+
+    private Mono<DebitCardValidationResponse> requestDebitCardValidation(DebitCardValidationRequest request) {
+        return kafkaService.sendAndReceive(
+                        debitCardValidationRequestTopic,
+                        debitCardValidationResponseTopic,
+                        request,
+                        DebitCardValidationResponse.class,
+                        Duration.ofSeconds(10)
+                )
+                .doOnNext(response -> log.debug("Respuesta de validación de tarjeta recibida: {}", response));
+    }
+
     private Mono<UserYanki> updateUserWithDebitCard(String yankiUserId, String debitCardId) {
         return findUserById(yankiUserId)
                 .switchIfEmpty(Mono.error(
                         new IllegalArgumentException("Usuario no encontrado: " + yankiUserId)))
-                .flatMap(user -> {
-                    user.setTarjetaAsociada(debitCardId);
-                    return userYankiMapper.toEntity(user)
-                            .flatMap(userYankiRepository::save)
-                            .flatMap(userYankiMapper::toDomain)
-                            .flatMap(this::cacheUser);
-                });
+                .map(userYankiMapper::toEntity)
+                // Se modifica la copia de persistencia: la instancia de dominio puede estar en la caché local
+                .doOnNext(entity -> entity.setTarjetaAsociada(debitCardId))
+                .flatMap(userYankiRepository::save)
+                .map(userYankiMapper::toDomain)
+                .flatMap(this::cacheUser)
+                .flatMap(saved -> phoneCardLookupService
+                        .invalidate(saved.getTelefono())
+                        .thenReturn(saved));
     }
 
     public Mono<Boolean> existById(String userId) {
-        return userYankiRepository.existsById(userId);
+        if (membershipIndex.isDefinitelyAbsent(userId)) {
+            return Mono.just(false);
+        }
+        return userYankiRepository.existsById(userId)
+                .doOnNext(exists -> membershipIndex.recordFalsePositives(exists ? 0 : 1));
+    }
+
+    /**
+     * Resuelve qué usuarios existen con una única consulta {@code $in} sobre el _id.
+     * Los ids que el índice de pertenencia descarta no llegan a consultarse.
+     *
+     * @param userIds Identificadores a comprobar
+     * @return Mono con el subconjunto de identificadores existentes
+     */
+    public Mono<Set<String>> findExistingIds(Collection<String> userIds) {
+        List<String> candidates = userIds.stream()
+                .filter(userId -> !membershipIndex.isDefinitelyAbsent(userId))
+                .toList();
+        if (candidates.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return userYankiRepository.findIdsByIdIn(candidates)
+                .map(UserYankiEntity::getId)
+                .collect(Collectors.toSet())
+                .doOnNext(existing -> membershipIndex.recordFalsePositives(candidates.size() - existing.size()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package nnt_data.yanki_service.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Una llamada a Redis, Mongo o Kafka hecha a través de su {@code DependencyGuard}.
+ */
+@Name(DependencyCallEvent.NAME)
+@Label("Dependency Call")
+@Description("Llamada a una dependencia externa")
+@Category({"Yanki", "Dependency"})
+@Enabled(false)
+@StackTrace(false)
+class DependencyCallEvent extends jdk.jfr.Event {
+
+    static final String NAME = "nnt_data.yanki.DependencyCall";
+
+    @Label("Dependency")
+    String dependency;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Outcome")
+    String outcome;
+}
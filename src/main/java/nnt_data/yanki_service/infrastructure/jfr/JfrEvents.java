@@ -0,0 +1,137 @@
+package nnt_data.yanki_service.infrastructure.jfr;
+
+import jdk.jfr.EventType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Emisión de los eventos JFR de Yanki desde código reactivo.
+ * <p>
+ * Los eventos están desactivados por defecto y se activan con {@code jfr/yanki.jfc}. Mientras
+ * ninguna grabación los tenga activos, estos métodos devuelven el Mono o Flux original sin envolver:
+ * el coste es una lectura de {@link EventType#isEnabled()} por operación.
+ */
+public final class JfrEvents {
+
+    private static final EventType TRANSFER_STAGE = EventType.getEventType(TransferStageEvent.class);
+    private static final EventType REQUEST_REPLY = EventType.getEventType(KafkaRequestReplyEvent.class);
+    private static final EventType DEPENDENCY_CALL = EventType.getEventType(DependencyCallEvent.class);
+
+    private JfrEvents() {
+    }
+
+    public static <T> Mono<T> transferStage(String stage, Mono<T> operation) {
+        if (!TRANSFER_STAGE.isEnabled()) {
+            return operation;
+        }
+        return Mono.defer(() -> {
+            TransferStageEvent event = new TransferStageEvent();
+            event.begin();
+            return operation.doFinally(signal -> {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = stage;
+                    event.outcome = outcome(signal);
+                    event.commit();
+                }
+            });
+        });
+    }
+
+    public static <T> Mono<T> dependencyCall(String dependency, String operation, Mono<T> call) {
+        if (!DEPENDENCY_CALL.isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            DependencyCallEvent event = new DependencyCallEvent();
+            event.begin();
+            return call.doFinally(signal -> commit(event, dependency, operation, signal));
+        });
+    }
+
+    public static <T> Flux<T> dependencyCall(String dependency, String operation, Flux<T> call) {
+        if (!DEPENDENCY_CALL.isEnabled()) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            DependencyCallEvent event = new DependencyCallEvent();
+            event.begin();
+            return call.doFinally(signal -> commit(event, dependency, operation, signal));
+        });
+    }
+
+    private static void commit(DependencyCallEvent event, String dependency, String operation, SignalType signal) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.dependency = dependency;
+            event.operation = operation;
+            event.outcome = outcome(signal);
+            event.commit();
+        }
+    }
+
+    /**
+     * Inicia el evento de un intercambio request-reply.
+     *
+     * @return El intercambio en curso; si el evento no está activo, uno que no registra nada
+     */
+    public static RequestReply beginRequestReply(String correlationId, String topic) {
+        if (!REQUEST_REPLY.isEnabled()) {
+            return RequestReply.NONE;
+        }
+        KafkaRequestReplyEvent event = new KafkaRequestReplyEvent();
+        event.correlationId = correlationId;
+        event.topic = topic;
+        event.begin();
+        return new RequestReply(event);
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case CANCEL -> "cancelled";
+            default -> "error";
+        };
+    }
+
+    /**
+     * Intercambio request-reply en curso.
+     */
+    public static final class RequestReply {
+
+        private static final RequestReply NONE = new RequestReply(null);
+
+        private final KafkaRequestReplyEvent event;
+
+        private RequestReply(KafkaRequestReplyEvent event) {
+            this.event = event;
+        }
+
+        /**
+         * El productor confirmó el envío de la solicitud.
+         */
+        public void sent() {
+            if (event != null) {
+                event.sentAt = System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * @param outcome {@code success}, {@code timeout}, {@code error} o {@code cancelled}
+         */
+        public void finish(String outcome) {
+            if (event == null) {
+                return;
+            }
+            event.end();
+            if ("success".equals(outcome)) {
+                event.repliedAt = System.currentTimeMillis();
+            }
+            if (event.shouldCommit()) {
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package nnt_data.yanki_service.infrastructure.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resume una grabación {@code .jfr} en latencias por etapa: transferencias por etapa, request-reply
+ * de Kafka por topic (total, envío y espera de respuesta) y llamadas a dependencias por operación.
+ * No depende de otras clases del proyecto, así que puede lanzarse directamente desde el fuente:
+ * <pre>
+ * java src/main/java/nnt_data/yanki_service/infrastructure/jfr/JfrLatencyReport.java yanki.jfr
+ * </pre>
+ */
+public final class JfrLatencyReport {
+
+    private JfrLatencyReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: JfrLatencyReport <grabación.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    /**
+     * @return Latencias agrupadas por fila del informe, p. ej. {@code transfer bank success}
+     */
+    public static Map<String, Latencies> summarize(Path recording) throws IOException {
+        Map<String, Latencies> rows = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String type = event.getEventType().getName();
+            switch (type) {
+                case "nnt_data.yanki.TransferStage" -> add(rows, "transfer " + event.getString("stage")
+                        + " " + event.getString("outcome"), event.getDuration());
+                case "nnt_data.yanki.DependencyCall" -> add(rows, event.getString("dependency") + " "
+                        + event.getString("operation") + " " + event.getString("outcome"), event.getDuration());
+                case "nnt_data.yanki.KafkaRequestReply" -> addRequestReply(rows, event);
+                default -> {
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void addRequestReply(Map<String, Latencies> rows, RecordedEvent event) {
+        String prefix = "kafka " + event.getString("topic") + " ";
+        add(rows, prefix + "total " + event.getString("outcome"), event.getDuration());
+        Instant sentAt = event.getInstant("sentAt");
+        if (sentAt.toEpochMilli() > 0) {
+            add(rows, prefix + "send", Duration.between(event.getStartTime(), sentAt));
+            Instant repliedAt = event.getInstant("repliedAt");
+            if (repliedAt.toEpochMilli() > 0) {
+                add(rows, prefix + "reply-wait", Duration.between(sentAt, repliedAt));
+            }
+        }
+    }
+
+    private static void add(Map<String, Latencies> rows, String key, Duration duration) {
+        rows.computeIfAbsent(key, ignored -> new Latencies()).add(duration);
+    }
+
+    public static void print(Map<String, Latencies> rows, PrintStream out) {
+        out.printf(Locale.ROOT, "%-50s %8s %10s %10s %10s %10s %10s%n",
+                "etapa", "n", "media ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        rows.forEach((key, latencies) -> out.printf(Locale.ROOT, "%-50s %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                key, latencies.count(), latencies.meanMillis(), latencies.percentileMillis(50),
+                latencies.percentileMillis(90), latencies.percentileMillis(99), latencies.percentileMillis(100)));
+    }
+
+    /**
+     * Duraciones de una fila del informe.
+     */
+    public static final class Latencies {
+
+        private final List<Long> nanos = new ArrayList<>();
+        private boolean sorted = true;
+
+        void add(Duration duration) {
+            nanos.add(Math.max(0, duration.toNanos()));
+            sorted = false;
+        }
+
+        public int count() {
+            return nanos.size();
+        }
+
+        public double meanMillis() {
+            return nanos.stream().mapToLong(Long::longValue).average().orElse(0) / 1_000_000d;
+        }
+
+        /**
+         * Percentil por el método del rango más cercano; 100 es el máximo.
+         */
+        public double percentileMillis(double percentile) {
+            if (nanos.isEmpty()) {
+                return 0;
+            }
+            if (!sorted) {
+                nanos.sort(null);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * nanos.size());
+            return nanos.get(Math.max(0, rank - 1)) / 1_000_000d;
+        }
+    }
+}
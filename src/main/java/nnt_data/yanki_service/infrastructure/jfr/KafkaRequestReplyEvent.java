@@ -0,0 +1,43 @@
+package nnt_data.yanki_service.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * Un intercambio request-reply de {@code KafkaService.sendAndReceive}: empieza al registrar la
+ * solicitud pendiente y termina con la respuesta, el timeout o la cancelación.
+ */
+@Name(KafkaRequestReplyEvent.NAME)
+@Label("Kafka Request-Reply")
+@Description("Solicitud a Kafka y espera de su respuesta")
+@Category({"Yanki", "Kafka"})
+@Enabled(false)
+@StackTrace(false)
+class KafkaRequestReplyEvent extends jdk.jfr.Event {
+
+    static final String NAME = "nnt_data.yanki.KafkaRequestReply";
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Sent At")
+    @Description("Confirmación del productor de Kafka; 0 si no llegó a enviarse")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long sentAt;
+
+    @Label("Replied At")
+    @Description("Llegada de la respuesta; 0 si no hubo respuesta")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long repliedAt;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,28 @@
+package nnt_data.yanki_service.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Una etapa de {@code TransactionYankiService.createTransaction}; la duración es la de la etapa.
+ */
+@Name(TransferStageEvent.NAME)
+@Label("Transfer Stage")
+@Description("Etapa de una transferencia Yanki")
+@Category({"Yanki", "Transfer"})
+@Enabled(false)
+@StackTrace(false)
+class TransferStageEvent extends jdk.jfr.Event {
+
+    static final String NAME = "nnt_data.yanki.TransferStage";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Outcome")
+    String outcome;
+}
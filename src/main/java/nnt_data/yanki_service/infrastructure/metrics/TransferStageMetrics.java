@@ -0,0 +1,53 @@
+package nnt_data.yanki_service.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import nnt_data.yanki_service.infrastructure.jfr.JfrEvents;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Temporizadores por etapa de la transferencia ({@code yanki.transfer.stage}), con histograma para
+ * calcular percentiles en Prometheus. Cada medición lleva la etapa y su resultado
+ * ({@code success}, {@code error} o {@code cancelled}). Si la grabación JFR lo activa, cada etapa
+ * emite además un evento {@code nnt_data.yanki.TransferStage}.
+ */
+@Component
+public class TransferStageMetrics {
+
+    public static final String LOOKUP = "lookup";
+    public static final String BANK = "bank";
+    public static final String MONGO_SAVE = "mongo.save";
+    public static final String JOURNAL_APPEND = "journal.append";
+    public static final String REDIS_SET = "redis.set";
+    public static final String TOTAL = "total";
+
+    private final MeterRegistry meterRegistry;
+
+    public TransferStageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Mide desde la suscripción hasta que la etapa termina, falla o se cancela.
+     */
+    public <T> Mono<T> time(String stage, Mono<T> operation) {
+        return JfrEvents.transferStage(stage, Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            // Se registra antes de propagar la señal, no en doFinally: quien espera el resultado ve ya la medición
+            return operation
+                    .doOnSuccess(value -> sample.stop(timer(stage, "success")))
+                    .doOnError(error -> sample.stop(timer(stage, "error")))
+                    .doOnCancel(() -> sample.stop(timer(stage, "cancelled")));
+        }));
+    }
+
+    private Timer timer(String stage, String outcome) {
+        return Timer.builder("yanki.transfer.stage")
+                .description("Duración de cada etapa de una transferencia")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,94 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Propaga invalidaciones de las cachés locales (L1) entre instancias mediante Redis pub/sub.
+ * <p>
+ * Cada mensaje lleva el id de la instancia emisora, el nombre de la caché y la clave; la
+ * instancia emisora ignora sus propios mensajes. Si la suscripción se pierde, al recuperarla
+ * se vacían todas las cachés locales, ya que pudieron perderse invalidaciones.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    static final String INVALIDATION_CHANNEL = "yanki:cache:invalidate";
+    private static final String SEPARATOR = "|";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, LocalCacheListener> listeners = new ConcurrentHashMap<>();
+    private Disposable subscription;
+
+    public CacheInvalidationBus(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Registra una caché local para recibir invalidaciones remotas.
+     *
+     * @param cacheName Nombre de la caché
+     * @param evictor Acción que elimina una clave de la caché local
+     * @param clearer Acción que vacía la caché local
+     */
+    public void register(String cacheName, Consumer<String> evictor, Runnable clearer) {
+        listeners.put(cacheName, new LocalCacheListener(evictor, clearer));
+    }
+
+    public Mono<Void> publish(String cacheName, String key) {
+        return redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + SEPARATOR + cacheName + SEPARATOR + key)
+                .doOnError(error -> log.warn("No se pudo publicar la invalidación de {} en {}: {}",
+                        key, cacheName, error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = redisTemplate.listenToChannelLater(INVALIDATION_CHANNEL)
+                .doOnNext(messages -> listeners.values().forEach(listener -> listener.clearer().run()))
+                .flatMapMany(messages -> messages)
+                .doOnNext(message -> onMessage(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Suscripción de invalidación de caché perdida: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        LocalCacheListener listener = listeners.get(parts[1]);
+        if (listener != null) {
+            listener.evictor().accept(parts[2]);
+        }
+    }
+
+    private record LocalCacheListener(Consumer<String> evictor, Runnable clearer) {
+    }
+}
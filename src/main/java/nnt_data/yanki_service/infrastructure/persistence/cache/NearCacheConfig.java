@@ -0,0 +1,82 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.entity.UserYanki;
+import nnt_data.yanki_service.infrastructure.resilience.DependencyGuard;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class NearCacheConfig {
+
+    @Value("${yanki.cache.refresh-ahead.beta:1.0}")
+    private double refreshAheadBeta;
+
+    @Value("${yanki.cache.ttl-jitter:0.1}")
+    private double ttlJitter;
+
+    @Value("${yanki.cache.negative-ttl:PT10S}")
+    private Duration negativeTtl;
+
+    /**
+     * Una política por caché: el tiempo medio de carga de cada origen es distinto.
+     */
+    private RefreshAhead refreshAhead() {
+        return new RefreshAhead(refreshAheadBeta, ttlJitter);
+    }
+
+    @Bean
+    public TwoLevelCache<UserYanki> userCache(
+            @Qualifier("userRedisTemplate") ReactiveRedisTemplate<String, UserYanki> userRedisTemplate,
+            CacheInvalidationBus invalidationBus,
+            RedisLoadLock loadLock,
+            @Qualifier("redisGuard") DependencyGuard redisGuard,
+            @Value("${yanki.cache.users.local.max-size:10000}") long maxSize,
+            @Value("${yanki.cache.users.local.ttl:PT30S}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        return new TwoLevelCache<>("users", userRedisTemplate, invalidationBus, loadLock, redisGuard, refreshAhead(), negativeTtl, maxSize, ttl, meterRegistry);
+    }
+
+    @Bean
+    public TwoLevelCache<TransactionYanki> transactionCache(
+            @Qualifier("transactionRedisTemplate") ReactiveRedisTemplate<String, TransactionYanki> transactionRedisTemplate,
+            CacheInvalidationBus invalidationBus,
+            RedisLoadLock loadLock,
+            @Qualifier("redisGuard") DependencyGuard redisGuard,
+            @Value("${yanki.cache.transactions.local.max-size:10000}") long maxSize,
+            @Value("${yanki.cache.transactions.local.ttl:PT30S}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        return new TwoLevelCache<>("transactions", transactionRedisTemplate, invalidationBus, loadLock, redisGuard, refreshAhead(), negativeTtl, maxSize, ttl, meterRegistry);
+    }
+
+    @Bean
+    public TwoLevelCache<String> phoneCardCache(
+            ReactiveStringRedisTemplate stringRedisTemplate,
+            CacheInvalidationBus invalidationBus,
+            RedisLoadLock loadLock,
+            @Qualifier("redisGuard") DependencyGuard redisGuard,
+            @Value("${yanki.cache.phone-cards.local.max-size:50000}") long maxSize,
+            @Value("${yanki.cache.phone-cards.local.ttl:PT30S}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        return new TwoLevelCache<>("phone-cards", stringRedisTemplate, invalidationBus, loadLock, redisGuard, refreshAhead(), negativeTtl, maxSize, ttl, meterRegistry);
+    }
+
+    @Bean
+    public TwoLevelCache<String> cardValidationCache(
+            ReactiveStringRedisTemplate stringRedisTemplate,
+            CacheInvalidationBus invalidationBus,
+            RedisLoadLock loadLock,
+            @Qualifier("redisGuard") DependencyGuard redisGuard,
+            @Value("${yanki.cache.card-validations.local.max-size:10000}") long maxSize,
+            @Value("${yanki.cache.card-validations.local.ttl:PT30S}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        return new TwoLevelCache<>("card-validations", stringRedisTemplate, invalidationBus, loadLock, redisGuard, refreshAhead(), negativeTtl, maxSize, ttl, meterRegistry);
+    }
+}
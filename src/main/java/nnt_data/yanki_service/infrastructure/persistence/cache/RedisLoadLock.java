@@ -0,0 +1,70 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bloqueo corto en Redis para que una sola instancia repueble una clave de caché tras un fallo.
+ * Las demás instancias esperan brevemente a que el valor aparezca en Redis antes de ir a Mongo.
+ */
+@Component
+public class RedisLoadLock {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final String owner = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final Duration lockTtl;
+    private final Duration pollInterval;
+    private final int maxPolls;
+
+    public RedisLoadLock(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Value("${yanki.cache.load-lock.enabled:false}") boolean enabled,
+            @Value("${yanki.cache.load-lock.ttl:PT2S}") Duration lockTtl,
+            @Value("${yanki.cache.load-lock.poll-interval:PT0.05S}") Duration pollInterval,
+            @Value("${yanki.cache.load-lock.max-polls:10}") int maxPolls) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.lockTtl = lockTtl;
+        this.pollInterval = pollInterval;
+        this.maxPolls = maxPolls;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration pollInterval() {
+        return pollInterval;
+    }
+
+    public int maxPolls() {
+        return maxPolls;
+    }
+
+    public Mono<Boolean> tryAcquire(String key) {
+        return redisTemplate.opsForValue()
+                .setIfAbsent(lockKey(key), owner, lockTtl)
+                .defaultIfEmpty(false);
+    }
+
+    public Mono<Void> release(String key) {
+        return redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(key)), List.of(owner))
+                .then();
+    }
+
+    private static String lockKey(String key) {
+        return "lock:" + key;
+    }
+}
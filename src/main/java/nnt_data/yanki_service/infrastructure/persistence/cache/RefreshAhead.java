@@ -0,0 +1,63 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de refresco anticipado (XFetch) y de dispersión de TTL de una caché.
+ * <p>
+ * Una lectura dispara la recarga antes de la expiración con probabilidad creciente a medida que
+ * se acerca: se recarga si {@code -delta * beta * ln(rand) >= tiempo restante}, donde {@code delta}
+ * es el tiempo medio de carga desde el origen. Con {@code beta = 0} el refresco queda desactivado.
+ * Los TTL se reducen al azar hasta un {@code jitter} (fracción) para que las claves cargadas a la vez
+ * no expiren a la vez.
+ */
+public class RefreshAhead {
+
+    private static final double LOAD_ALPHA = 0.2;
+
+    private final double beta;
+    private final double jitter;
+    private volatile double loadMillis;
+
+    public RefreshAhead(double beta, double jitter) {
+        this.beta = beta;
+        this.jitter = Math.max(0, Math.min(1, jitter));
+    }
+
+    public boolean isEnabled() {
+        return beta > 0;
+    }
+
+    /**
+     * Registra la duración de una carga desde el origen (media móvil exponencial).
+     */
+    public void recordLoad(Duration duration) {
+        double millis = duration.toNanos() / 1_000_000d;
+        double current = loadMillis;
+        loadMillis = current == 0 ? millis : current + LOAD_ALPHA * (millis - current);
+    }
+
+    /**
+     * @param remainingMillis Tiempo que le queda a la entrada en Redis
+     * @return true si esta lectura debe recargar la entrada por adelantado
+     */
+    public boolean shouldRefresh(long remainingMillis) {
+        double delta = loadMillis;
+        if (!isEnabled() || delta <= 0) {
+            return false;
+        }
+        return -delta * beta * Math.log(ThreadLocalRandom.current().nextDouble()) >= remainingMillis;
+    }
+
+    /**
+     * @return El TTL reducido al azar entre 0 y {@code jitter} de su valor
+     */
+    public Duration jitter(Duration ttl) {
+        if (jitter == 0) {
+            return ttl;
+        }
+        long millis = ttl.toMillis();
+        return Duration.ofMillis(millis - (long) (millis * jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,165 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom escalable (Almeida et al.): cuando la etapa actual alcanza su capacidad
+ * se añade otra con el doble de capacidad y una tasa de falsos positivos más estricta, de
+ * modo que la tasa compuesta se mantiene acotada aunque el número de elementos crezca.
+ * <p>
+ * Es seguro para uso concurrente: los bits se activan con CAS y solo la creación de
+ * etapas está sincronizada.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final double targetFalsePositiveRate;
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        this.targetFalsePositiveRate = falsePositiveRate;
+        stages.add(new Stage(Math.max(initialCapacity, 64), falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    public void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        currentStage().add(hash1, hash2);
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long size() {
+        long total = 0;
+        for (Stage stage : stages) {
+            total += stage.count.get();
+        }
+        return total;
+    }
+
+    /**
+     * Tasa de falsos positivos estimada a partir de la ocupación real de bits de cada etapa.
+     */
+    public double estimatedFalsePositiveRate() {
+        double noFalsePositive = 1.0;
+        for (Stage stage : stages) {
+            noFalsePositive *= 1.0 - stage.estimatedFalsePositiveRate();
+        }
+        return 1.0 - noFalsePositive;
+    }
+
+    public double targetFalsePositiveRate() {
+        return targetFalsePositiveRate;
+    }
+
+    public long memoryBytes() {
+        long total = 0;
+        for (Stage stage : stages) {
+            total += (long) stage.bits.length() * Long.BYTES;
+        }
+        return total;
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    private Stage currentStage() {
+        Stage last = stages.get(stages.size() - 1);
+        if (last.count.get() < last.capacity) {
+            return last;
+        }
+        synchronized (stages) {
+            last = stages.get(stages.size() - 1);
+            if (last.count.get() >= last.capacity) {
+                last = new Stage(last.capacity * GROWTH_FACTOR, last.falsePositiveRate * TIGHTENING_RATIO);
+                stages.add(last);
+            }
+            return last;
+        }
+    }
+
+    private static long hash(String value) {
+        // FNV-1a sobre los caracteres, finalizado con el mezclador de MurmurHash3
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.ceil(-Math.log(falsePositiveRate) / Math.log(2)));
+        }
+
+        private void add(long hash1, long hash2) {
+            boolean changed = false;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long previous = bits.getAndAccumulate(word, mask, (current, m) -> current | m);
+                changed |= (previous & mask) == 0;
+            }
+            if (changed) {
+                count.incrementAndGet();
+            }
+        }
+
+        private boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private double estimatedFalsePositiveRate() {
+            long set = 0;
+            for (int i = 0; i < bits.length(); i++) {
+                set += Long.bitCount(bits.get(i));
+            }
+            return Math.pow((double) set / bitCount, hashCount);
+        }
+    }
+}
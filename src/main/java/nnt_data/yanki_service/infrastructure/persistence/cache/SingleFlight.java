@@ -0,0 +1,45 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las cargas concurrentes de una misma clave: mientras una carga está en vuelo, las
+ * demás llamadas para esa clave se suscriben al mismo Mono en lugar de lanzar otra.
+ *
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del valor cargado
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key Clave a cargar
+     * @param loader Proveedor de la carga; solo se invoca si no hay otra en vuelo para la clave
+     * @param onJoin Acción ejecutada cuando la llamada se une a una carga existente
+     * @return Mono compartido con el resultado de la carga
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader, Runnable onJoin) {
+        return Mono.defer(() -> {
+            boolean[] created = new boolean[1];
+            Mono<V> shared = inFlight.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return loader.get()
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            if (!created[0]) {
+                onJoin.run();
+            }
+            return shared;
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
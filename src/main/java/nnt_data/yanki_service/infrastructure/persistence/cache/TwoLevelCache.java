@@ -0,0 +1,391 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.infrastructure.resilience.DependencyGuard;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché de dos niveles: una caché en memoria acotada (Caffeine, W-TinyLFU) con un TTL
+ * corto delante de Redis. Las escrituras y borrados se propagan a las cachés locales
+ * de las demás instancias mediante {@link CacheInvalidationBus}. Los fallos concurrentes
+ * de una misma clave se resuelven con una sola carga ({@link SingleFlight}) y, si está
+ * activado, un bloqueo en Redis evita que varias instancias repueblen la misma clave.
+ * <p>
+ * Todas las operaciones sobre Redis pasan por el {@link DependencyGuard} de Redis: si Redis falla
+ * o el circuito está abierto, la caché se comporta como un fallo de L2 y las escrituras solo
+ * llegan a memoria, sin esperar al timeout de conexión.
+ * <p>
+ * Cada entrada local recuerda cuándo expira en Redis. En {@link #getOrLoad} se aplica el refresco
+ * anticipado de {@link RefreshAhead}: algunas lecturas cercanas a la expiración recargan el valor en
+ * segundo plano mientras se sigue sirviendo el actual, de modo que las claves calientes no llegan a
+ * expirar. Los TTL de escritura se dispersan con el jitter de la misma política.
+ * <p>
+ * Cuando el origen no encuentra una clave, {@link #getOrLoad} guarda en memoria una entrada negativa con
+ * un TTL corto, de modo que las consultas repetidas de claves inexistentes no llegan a la base de datos.
+ * Las entradas negativas solo viven en L1: cualquier escritura de la clave las reemplaza y la invalidación
+ * entre instancias las elimina del resto.
+ *
+ * @param <V> Tipo de los valores cacheados
+ */
+@Slf4j
+public class TwoLevelCache<V> {
+
+    private final String name;
+    private final Cache<String, Entry<V>> local;
+    private final ReactiveRedisTemplate<String, V> redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final RedisLoadLock loadLock;
+    private final DependencyGuard redisGuard;
+    private final RefreshAhead refreshAhead;
+    private final SingleFlight<String, V> singleFlight = new SingleFlight<>();
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter coalescedLoads;
+    private final Counter bypassed;
+    private final Counter refreshes;
+    private final Counter negativeHits;
+    private final Counter negativeMisses;
+    private final long negativeTtlMillis;
+    private final String getOperation;
+    private final String putOperation;
+    private final String putAllOperation;
+    private final String preloadOperation;
+    private final String evictOperation;
+
+    public TwoLevelCache(String name,
+                         ReactiveRedisTemplate<String, V> redisTemplate,
+                         CacheInvalidationBus invalidationBus,
+                         RedisLoadLock loadLock,
+                         DependencyGuard redisGuard,
+                         RefreshAhead refreshAhead,
+                         Duration negativeTtl,
+                         long localMaxSize,
+                         Duration localTtl,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.loadLock = loadLock;
+        this.redisGuard = redisGuard;
+        this.refreshAhead = refreshAhead;
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.getOperation = name + ".get";
+        this.putOperation = name + ".put";
+        this.putAllOperation = name + ".putAll";
+        this.preloadOperation = name + ".preload";
+        this.evictOperation = name + ".evict";
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+        this.localHits = requests(meterRegistry, "l1", "hit");
+        this.localMisses = requests(meterRegistry, "l1", "miss");
+        this.redisHits = requests(meterRegistry, "l2", "hit");
+        this.redisMisses = requests(meterRegistry, "l2", "miss");
+        this.coalescedLoads = Counter.builder("yanki.cache.loads.coalesced")
+                .tag("cache", name)
+                .description("Fallos de caché que se unieron a una carga ya en vuelo")
+                .register(meterRegistry);
+        this.bypassed = Counter.builder("yanki.cache.redis.bypassed")
+                .tag("cache", name)
+                .description("Operaciones resueltas sin Redis por error o circuito abierto")
+                .register(meterRegistry);
+        this.refreshes = Counter.builder("yanki.cache.refresh.ahead")
+                .tag("cache", name)
+                .description("Recargas anticipadas disparadas antes de la expiración en Redis")
+                .register(meterRegistry);
+        this.negativeHits = negativeRequests(meterRegistry, "hit");
+        this.negativeMisses = negativeRequests(meterRegistry, "miss");
+        invalidationBus.register(name, local::invalidate, local::invalidateAll);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Busca la clave primero en memoria y luego en Redis, poblando la caché local con los aciertos de Redis.
+     *
+     * @return Mono vacío si la clave no está en ninguno de los dos niveles
+     */
+    public Mono<V> get(String key) {
+        return lookup(key).mapNotNull(Entry::value);
+    }
+
+    /**
+     * @return true si hay una entrada negativa vigente para la clave, es decir, el origen no la encontró hace poco
+     */
+    public boolean isKnownAbsent(String key) {
+        Entry<V> entry = localEntry(key);
+        return entry != null && entry.isAbsent();
+    }
+
+    /**
+     * Registra que el origen no tiene la clave. No reemplaza un valor presente escrito mientras tanto.
+     */
+    public void markAbsent(String key) {
+        if (negativeTtlMillis <= 0) {
+            return;
+        }
+        negativeMisses.increment();
+        Entry<V> absent = new Entry<>(null, System.currentTimeMillis() + negativeTtlMillis);
+        local.asMap().compute(key, (k, existing) -> existing != null && !existing.isAbsent() ? existing : absent);
+    }
+
+    /**
+     * Entrada local vigente; las negativas caducadas se descartan y cuentan como fallo de L1.
+     */
+    private Entry<V> localEntry(String key) {
+        Entry<V> entry = local.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isAbsent()) {
+            if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                local.asMap().remove(key, entry);
+                return null;
+            }
+            negativeHits.increment();
+            return entry;
+        }
+        localHits.increment();
+        return entry;
+    }
+
+    private Mono<Entry<V>> lookup(String key) {
+        Entry<V> entry = localEntry(key);
+        if (entry != null) {
+            return Mono.just(entry);
+        }
+        localMisses.increment();
+        return redisGuard.protect(getOperation, readRedis(key))
+                .onErrorResume(error -> bypass("get", key, error))
+                .doOnNext(found -> {
+                    redisHits.increment();
+                    local.put(key, found);
+                })
+                .switchIfEmpty(Mono.fromRunnable(redisMisses::increment));
+    }
+
+    /**
+     * Lee el valor y, si el refresco anticipado está activo, su TTL restante ({@code GET} y
+     * {@code PTTL} se envían juntos por la misma conexión).
+     */
+    private Mono<Entry<V>> readRedis(String key) {
+        if (!refreshAhead.isEnabled()) {
+            return redisTemplate.opsForValue().get(key).map(value -> new Entry<>(value, 0));
+        }
+        return redisTemplate.opsForValue().get(key)
+                .zipWith(redisTemplate.getExpire(key).defaultIfEmpty(Duration.ZERO),
+                        (value, remaining) -> new Entry<>(value, expiresAt(remaining)));
+    }
+
+    /**
+     * Busca la clave en caché y, si no está, la carga con {@code loader} y la cachea. Las cargas
+     * concurrentes de la misma clave en esta instancia comparten un único Mono.
+     *
+     * @param key Clave a buscar
+     * @param loader Carga desde el origen de datos; puede completar vacío si el valor no existe, en cuyo
+     *               caso se guarda una entrada negativa
+     * @param ttl TTL de Redis para el valor cargado
+     */
+    public Mono<V> getOrLoad(String key, Supplier<Mono<V>> loader, Duration ttl) {
+        return getOrLoad(key, loader, value -> ttl);
+    }
+
+    /**
+     * Igual que {@link #getOrLoad(String, Supplier, Duration)}, con un TTL que depende del valor cargado.
+     */
+    public Mono<V> getOrLoad(String key, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+        return lookup(key)
+                .doOnNext(entry -> refreshIfExpiring(key, entry, loader, ttl))
+                .switchIfEmpty(singleFlight.execute(key, () -> load(key, loader, ttl), coalescedLoads::increment)
+                        .map(value -> new Entry<>(value, 0)))
+                .mapNotNull(Entry::value);
+    }
+
+    private void refreshIfExpiring(String key, Entry<V> entry, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+        if (entry.isAbsent() || entry.expiresAtMillis() == 0
+                || !refreshAhead.shouldRefresh(entry.expiresAtMillis() - System.currentTimeMillis())) {
+            return;
+        }
+        singleFlight.execute(key, () -> {
+                    refreshes.increment();
+                    return loadAndPut(key, loader, ttl);
+                }, () -> { })
+                .subscribe(refreshed -> log.debug("Caché {}: {} recargada antes de expirar", name, key),
+                        error -> log.warn("Caché {}: no se pudo recargar {} por adelantado: {}",
+                                name, key, error.getMessage()));
+    }
+
+    private Mono<V> loadAndPut(String key, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.defer(loader)
+                    .doOnSuccess(value -> refreshAhead.recordLoad(Duration.ofNanos(System.nanoTime() - start)));
+        }).flatMap(value -> put(key, value, ttl.apply(value)))
+                .switchIfEmpty(Mono.fromRunnable(() -> markAbsent(key)));
+    }
+
+    private Mono<V> load(String key, Supplier<Mono<V>> loader, Function<V, Duration> ttl) {
+        Mono<V> loadAndPut = loadAndPut(key, loader, ttl);
+        if (!loadLock.isEnabled() || redisGuard.isOpen()) {
+            return loadAndPut;
+        }
+        return loadLock.tryAcquire(key)
+                .onErrorReturn(false)
+                .flatMap(acquired -> acquired
+                        ? loadAndPut.doFinally(signal -> releaseLock(key))
+                        : awaitPeerLoad(key).switchIfEmpty(loadAndPut));
+    }
+
+    private void releaseLock(String key) {
+        loadLock.release(key).onErrorResume(error -> Mono.empty()).subscribe();
+    }
+
+    /**
+     * Otra instancia tiene el bloqueo: espera a que publique el valor en Redis antes de ir al origen.
+     */
+    private Mono<V> awaitPeerLoad(String key) {
+        return Flux.range(0, loadLock.maxPolls())
+                .concatMap(attempt -> Mono.delay(loadLock.pollInterval())
+                        .then(redisGuard.protect(getOperation, redisTemplate.opsForValue().get(key))
+                                .onErrorResume(error -> Mono.empty())))
+                .next()
+                .doOnNext(value -> local.put(key, new Entry<>(value, 0)));
+    }
+
+    /**
+     * Escribe el valor en Redis y en memoria e invalida la copia local de las demás instancias.
+     */
+    public Mono<V> put(String key, V value, Duration ttl) {
+        Duration jittered = refreshAhead.jitter(ttl);
+        return redisGuard.protect(putOperation, redisTemplate.opsForValue()
+                        .set(key, value, jittered)
+                        .doOnSuccess(ignored -> local.put(key, new Entry<>(value, expiresAt(jittered))))
+                        .then(invalidationBus.publish(name, key)))
+                .onErrorResume(error -> {
+                    local.put(key, new Entry<>(value, 0));
+                    return bypass("put", key, error);
+                })
+                .thenReturn(value);
+    }
+
+    /**
+     * Escribe varias claves a la vez. Los {@code SET} se emiten sin esperar respuesta entre ellos,
+     * por lo que Lettuce los envía en una sola ráfaga (pipelining) sobre la conexión compartida.
+     */
+    public Mono<Void> putAll(Map<String, V> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return Mono.empty();
+        }
+        return redisGuard.protect(putAllOperation, Flux.fromIterable(values.entrySet())
+                        .flatMap(entry -> {
+                            Duration jittered = refreshAhead.jitter(ttl);
+                            return redisTemplate.opsForValue()
+                                    .set(entry.getKey(), entry.getValue(), jittered)
+                                    .doOnSuccess(ignored -> local.put(entry.getKey(),
+                                            new Entry<>(entry.getValue(), expiresAt(jittered))))
+                                    .thenReturn(entry);
+                        }, values.size())
+                        .flatMap(entry -> invalidationBus.publish(name, entry.getKey()), values.size())
+                        .then())
+                .onErrorResume(error -> {
+                    values.forEach((key, value) -> local.put(key, new Entry<>(value, 0)));
+                    return bypass("putAll", values.size() + " claves", error);
+                });
+    }
+
+    /**
+     * Precarga valores leídos del origen sin pisar los que ya estén en Redis ({@code SET NX}): un valor
+     * presente puede ser más reciente que la lectura. Como no cambia ningún valor existente, no se
+     * invalida la caché local de las demás instancias. Los comandos se envían en ráfaga, igual que en
+     * {@link #putAll}, y cada clave recibe su propio TTL con jitter.
+     *
+     * @return Número de claves escritas (0 si Redis no está disponible)
+     */
+    public Mono<Long> preload(Map<String, V> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return redisGuard.protect(preloadOperation, Flux.fromIterable(values.entrySet())
+                        .flatMap(entry -> {
+                            Duration jittered = refreshAhead.jitter(ttl);
+                            return redisTemplate.opsForValue()
+                                    .setIfAbsent(entry.getKey(), entry.getValue(), jittered)
+                                    .filter(Boolean::booleanValue)
+                                    .doOnNext(written -> local.put(entry.getKey(),
+                                            new Entry<>(entry.getValue(), expiresAt(jittered))));
+                        }, values.size())
+                        .count())
+                .onErrorResume(error -> bypass("preload", values.size() + " claves", error))
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Elimina la clave de ambos niveles en esta instancia y de la caché local de las demás.
+     */
+    public Mono<Void> evict(String key) {
+        local.invalidate(key);
+        return redisGuard.protect(evictOperation, redisTemplate.opsForValue()
+                        .delete(key)
+                        .then(invalidationBus.publish(name, key)))
+                .onErrorResume(error -> bypass("evict", key, error));
+    }
+
+    private <T> Mono<T> bypass(String operation, String key, Throwable error) {
+        bypassed.increment();
+        log.debug("Caché {}: {} de {} sin Redis: {}", name, operation, key, error.getMessage());
+        return Mono.empty();
+    }
+
+    /**
+     * @return Instante de expiración en Redis, o 0 si se desconoce (sin TTL o clave inexistente)
+     */
+    private static long expiresAt(Duration remaining) {
+        return remaining.isNegative() || remaining.isZero() ? 0 : System.currentTimeMillis() + remaining.toMillis();
+    }
+
+    private Counter negativeRequests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("yanki.cache.negative.requests")
+                .tag("cache", name)
+                .tag("result", result)
+                .description("Claves inexistentes respondidas por la entrada negativa (hit) o por el origen (miss)")
+                .register(meterRegistry);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("yanki.cache.requests")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Valor en la caché local junto con su expiración en Redis (0 si se desconoce). Una entrada sin valor
+     * es negativa y su expiración es la de la propia entrada.
+     */
+    private record Entry<V>(V value, long expiresAtMillis) {
+
+        boolean isAbsent() {
+            return value == null;
+        }
+    }
+}
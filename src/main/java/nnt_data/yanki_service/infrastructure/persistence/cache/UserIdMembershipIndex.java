@@ -0,0 +1,193 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Índice de pertenencia de los ids de {@code user_yanki} basado en un filtro de Bloom escalable.
+ * <p>
+ * Se construye desde Mongo al arrancar y se mantiene al día con las altas propias y con las de
+ * otras instancias, recibidas por Redis pub/sub. Mientras el índice no esté completo (arranque o
+ * pérdida de la suscripción) no responde negativos y las consultas van a la base de datos.
+ * <p>
+ * Pub/sub entrega como mucho una vez, así que cada alta incrementa además un contador de versión
+ * en Redis. El índice compara periódicamente ese contador con las altas que ha aplicado: mientras
+ * vaya por detrás deja de responder negativos, y si el hueco persiste entre dos comprobaciones
+ * (se perdió un mensaje) se reconstruye desde Mongo.
+ */
+@Slf4j
+@Component
+public class UserIdMembershipIndex {
+
+    static final String CREATED_USERS_CHANNEL = "yanki:users:created";
+    static final String USERS_VERSION_KEY = "yanki:users:version";
+
+    private final UserYankiRepository userYankiRepository;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Duration checkInterval;
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile ScalableBloomFilter filter;
+    private volatile boolean ready;
+    private volatile AtomicLong applied = new AtomicLong();
+    private volatile long observedVersion;
+    private Disposable subscription;
+
+    public UserIdMembershipIndex(
+            UserYankiRepository userYankiRepository,
+            ReactiveStringRedisTemplate redisTemplate,
+            @Value("${yanki.membership.expected-users:1000000}") long expectedUsers,
+            @Value("${yanki.membership.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${yanki.membership.check-interval:PT5S}") Duration checkInterval,
+            MeterRegistry meterRegistry) {
+        this.userYankiRepository = userYankiRepository;
+        this.redisTemplate = redisTemplate;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.checkInterval = checkInterval;
+        this.filter = new ScalableBloomFilter(expectedUsers, falsePositiveRate);
+
+        Gauge.builder("yanki.membership.users.size", this, index -> index.filter.size())
+                .register(meterRegistry);
+        Gauge.builder("yanki.membership.users.memory", this, index -> index.filter.memoryBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("yanki.membership.users.fpp.estimated", this, index -> index.filter.estimatedFalsePositiveRate())
+                .description("Tasa de falsos positivos estimada por la ocupación del filtro")
+                .register(meterRegistry);
+        Gauge.builder("yanki.membership.users.ready", this, index -> index.ready ? 1 : 0)
+                .register(meterRegistry);
+        FunctionCounter.builder("yanki.membership.users.negatives", definiteNegatives, LongAdder::sum)
+                .description("Consultas respondidas sin ir a la base de datos")
+                .register(meterRegistry);
+        FunctionCounter.builder("yanki.membership.users.false.positives", falsePositives, LongAdder::sum)
+                .description("Falsos positivos observados contra la base de datos")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = redisTemplate.listenToChannelLater(CREATED_USERS_CHANNEL)
+                .flatMapMany(messages -> {
+                    ScalableBloomFilter fresh = new ScalableBloomFilter(expectedUsers, falsePositiveRate);
+                    AtomicLong freshApplied = new AtomicLong();
+                    ready = false;
+                    filter = fresh;
+                    applied = freshApplied;
+                    // La versión se lee ya suscritos y antes de recorrer Mongo: las altas anteriores
+                    // están en la colección y las posteriores llegan por el canal
+                    Mono<Void> build = readVersion()
+                            .doOnNext(version -> {
+                                freshApplied.addAndGet(version);
+                                observedVersion = version;
+                            })
+                            .thenMany(userYankiRepository.findAllIds())
+                            .map(UserYankiEntity::getId)
+                            .doOnNext(fresh::add)
+                            .then(Mono.fromRunnable(() -> {
+                                ready = true;
+                                log.info("Índice de usuarios Yanki construido: {} ids, {} bytes, fpp estimada {}",
+                                        fresh.size(), fresh.memoryBytes(), fresh.estimatedFalsePositiveRate());
+                            }));
+                    Flux<Void> catchUp = Flux.interval(checkInterval)
+                            .concatMap(tick -> readVersion())
+                            .handle((version, sink) -> {
+                                // Una versión ya vista en la comprobación anterior y aún sin aplicar es un alta perdida
+                                if (observedVersion > freshApplied.get()) {
+                                    sink.error(new IllegalStateException("Altas de usuarios perdidas: versión "
+                                            + observedVersion + ", aplicadas " + freshApplied.get()));
+                                    return;
+                                }
+                                observedVersion = version;
+                            });
+                    return Flux.merge(
+                            messages.doOnNext(message -> {
+                                fresh.add(message.getMessage());
+                                freshApplied.incrementAndGet();
+                            }).then(),
+                            build.thenMany(catchUp));
+                })
+                .doOnError(error -> ready = false)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Índice de usuarios Yanki inválido, reconstruyendo: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * @return true si el usuario seguro que no existe; false si puede existir o el índice no está listo
+     */
+    public boolean isDefinitelyAbsent(String userId) {
+        if (isInSync() && !filter.mightContain(userId)) {
+            definiteNegatives.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registra un alta en el índice local y la propaga al resto de instancias. La versión se
+     * incrementa antes de publicar para que un mensaje perdido siempre deje un hueco visible.
+     */
+    public Mono<Void> add(String userId) {
+        filter.add(userId);
+        return redisTemplate.opsForValue().increment(USERS_VERSION_KEY)
+                .then(redisTemplate.convertAndSend(CREATED_USERS_CHANNEL, userId))
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(100)))
+                .doOnError(error -> log.error("No se pudo propagar el alta del usuario {} al índice", userId, error))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    /**
+     * Registra consultas a la base de datos que el filtro dejó pasar y resultaron no existir.
+     */
+    public void recordFalsePositives(long count) {
+        if (isInSync() && count > 0) {
+            falsePositives.add(count);
+        }
+    }
+
+    /**
+     * El índice solo responde negativos cuando está construido y ha aplicado todas las altas
+     * que la última comprobación vio en Redis; mientras tanto las consultas van a Mongo.
+     */
+    private boolean isInSync() {
+        return ready && applied.get() >= observedVersion;
+    }
+
+    private Mono<Long> readVersion() {
+        return redisTemplate.opsForValue().get(USERS_VERSION_KEY)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+}
@@ -3,12 +3,19 @@ package nnt_data.yanki_service.infrastructure.persistence.entity;
 import lombok.Data;
 import nnt_data.yanki_service.entity.TransactionYanki;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 @Document("transaction_yanki")
+@CompoundIndexes({
+        @CompoundIndex(name = "telefonoOrigen_fecha_id", def = "{ 'telefonoOrigen': 1, 'fecha': -1, '_id': -1 }"),
+        @CompoundIndex(name = "telefonoDestino_fecha_id", def = "{ 'telefonoDestino': 1, 'fecha': -1, '_id': -1 }")
+})
 public class TransactionYankiEntity {
     @Id
     private String id;
@@ -16,4 +23,5 @@ public class TransactionYankiEntity {
     private String telefonoDestino;
     private BigDecimal monto;
     private TransactionYanki.TypeEnum type;
+    private Instant fecha;
 }
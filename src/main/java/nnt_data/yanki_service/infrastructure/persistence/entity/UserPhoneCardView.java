@@ -0,0 +1,10 @@
+package nnt_data.yanki_service.infrastructure.persistence.entity;
+
+/**
+ * Proyección de {@link UserYankiEntity} con solo el teléfono y la tarjeta asociada.
+ */
+public interface UserPhoneCardView {
+    String getTelefono();
+
+    String getTarjetaAsociada();
+}
@@ -15,6 +15,7 @@ public class UserYankiEntity {
     private String pin;
     @Indexed(unique = true)
     private String numeroDocumento;
+    @Indexed
     private String telefono;
     private String imei;
     private String correo;
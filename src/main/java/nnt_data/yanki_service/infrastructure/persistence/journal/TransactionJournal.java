@@ -0,0 +1,188 @@
+package nnt_data.yanki_service.infrastructure.persistence.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.readDecimal;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.readString;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.writeDecimal;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.writeString;
+
+/**
+ * Diario local de solo anexado para las transacciones pendientes de escribir en Mongo.
+ * <p>
+ * Se organiza en segmentos numerados; cada registro es {@code [longitud][crc32][datos]}, de modo
+ * que un registro a medio escribir por una caída se detecta y descarta al releer. No es seguro
+ * entre hilos: {@link TransactionWriteBehind} lo usa desde un único hilo.
+ */
+@Slf4j
+class TransactionJournal implements Closeable {
+
+    private static final String PREFIX = "transactions-";
+    private static final String SUFFIX = ".journal";
+    private static final String PARKED_SUFFIX = ".failed";
+
+    private final Path directory;
+    private final boolean fsync;
+    private long sequence;
+    private Path current;
+    private FileChannel channel;
+
+    TransactionJournal(Path directory, long firstSequence, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        open(firstSequence);
+    }
+
+    void append(TransactionYankiEntity entity) throws IOException {
+        byte[] payload = encode(entity);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y abre el siguiente. Si falla, se puede volver a llamar: el
+     * segmento cerrado sigue siendo el mismo hasta que el siguiente se abre.
+     *
+     * @return Segmento cerrado, con los registros escritos desde el último cierre
+     */
+    Path roll() throws IOException {
+        Path sealed = current;
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+        open(sequence + 1);
+        return sealed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (Files.size(current) == 0) {
+            Files.deleteIfExists(current);
+        }
+    }
+
+    private void open(long nextSequence) throws IOException {
+        Path next = directory.resolve(String.format("%s%020d%s", PREFIX, nextSequence, SUFFIX));
+        channel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        sequence = nextSequence;
+        current = next;
+    }
+
+    /**
+     * @return Segmentos existentes en el directorio, del más antiguo al más reciente
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Aparta un segmento que no se pudo escribir: deja de listarse en {@link #segments} y no se
+     * reaplica al arrancar, pero sus registros siguen en disco para revisarlos y reaplicarlos a mano.
+     *
+     * @return Fichero apartado
+     */
+    static Path park(Path segment) throws IOException {
+        return Files.move(segment, segment.resolveSibling(segment.getFileName() + PARKED_SUFFIX));
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Lee los registros completos de un segmento; se detiene en el primero truncado o corrupto.
+     */
+    static List<TransactionYankiEntity> read(Path segment) throws IOException {
+        List<TransactionYankiEntity> entities = new ArrayList<>();
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(segment));
+        while (data.remaining() >= 8) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                log.warn("Registro truncado al final del diario {}", segment);
+                break;
+            }
+            byte[] payload = new byte[length];
+            data.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Registro corrupto en el diario {}; se descarta el resto del segmento", segment);
+                break;
+            }
+            entities.add(decode(payload));
+        }
+        return entities;
+    }
+
+    static byte[] encode(TransactionYankiEntity entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, entity.getId());
+        writeString(out, entity.getType() == null ? null : entity.getType().getValue());
+        writeString(out, entity.getTelefonoOrigen());
+        writeString(out, entity.getTelefonoDestino());
+        writeDecimal(out, entity.getMonto());
+        out.writeLong(entity.getFecha() == null ? Long.MIN_VALUE : entity.getFecha().toEpochMilli());
+        return bytes.toByteArray();
+    }
+
+    static TransactionYankiEntity decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        TransactionYankiEntity entity = new TransactionYankiEntity();
+        entity.setId(readString(in));
+        String type = readString(in);
+        entity.setType(type == null ? null : TransactionYanki.TypeEnum.fromValue(type));
+        entity.setTelefonoOrigen(readString(in));
+        entity.setTelefonoDestino(readString(in));
+        entity.setMonto(readDecimal(in));
+        long fecha = in.readLong();
+        entity.setFecha(fecha == Long.MIN_VALUE ? null : Instant.ofEpochMilli(fecha));
+        return entity;
+    }
+}
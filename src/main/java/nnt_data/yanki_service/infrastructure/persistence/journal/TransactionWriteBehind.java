@@ -0,0 +1,346 @@
+package nnt_data.yanki_service.infrastructure.persistence.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.mapper.TransactionYankiMapper;
+import nnt_data.yanki_service.infrastructure.persistence.repository.TransactionYankiRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Escritura diferida (write-behind) de las transacciones confirmadas por el banco.
+ * <p>
+ * Cada transacción se anexa a un {@link TransactionJournal} local y se responde sin esperar a Mongo.
+ * Las transacciones se agrupan en lotes que se cierran por tamaño o por tiempo; cada lote es un
+ * segmento del diario y se escribe con un único {@code insertMany}, seguido de un {@code putAll}
+ * encadenado en Redis. El segmento se borra solo cuando el lote está en Mongo. Un lote que sigue
+ * fallando tras {@code max-flush-retries} reintentos se aparta como {@code .failed} para que no
+ * bloquee a los siguientes.
+ * <p>
+ * Los segmentos que queden al arrancar (caída o parada sin vaciar) se reescriben desde {@link #run},
+ * cuando la aplicación ya puede estar recibiendo tráfico; sus transacciones se sirven desde memoria
+ * hasta que terminan de escribirse. Se ejecuta tras {@link
+ * nnt_data.yanki_service.infrastructure.persistence.repository.MongoIndexInitializer} y antes del
+ * calentamiento de caché, que así encuentra en Mongo las transacciones reaplicadas.
+ * <p>
+ * Mientras un lote no se ha vaciado, sus transacciones se sirven desde memoria en esta instancia;
+ * otras instancias las verán en Mongo y Redis como mucho un intervalo de vaciado después.
+ */
+@Slf4j
+@Component
+@Order(2)
+public class TransactionWriteBehind implements ApplicationRunner {
+
+    private final TransactionYankiRepository repository;
+    private final TwoLevelCache<TransactionYanki> transactionCache;
+    private final TransactionYankiMapper mapper;
+    private final Timer flushTimer;
+    private final Counter flushedTransactions;
+    private final Counter rejectedTransactions;
+    private final Counter parkedTransactions;
+
+    @Value("${yanki.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${yanki.write-behind.directory:data/journal}")
+    private Path directory;
+
+    @Value("${yanki.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${yanki.write-behind.flush-interval:PT0.1S}")
+    private Duration flushInterval;
+
+    @Value("${yanki.write-behind.max-pending-batches:64}")
+    private int maxPendingBatches;
+
+    @Value("${yanki.write-behind.max-flush-retries:10}")
+    private int maxFlushRetries;
+
+    @Value("${yanki.write-behind.fsync:false}")
+    private boolean fsync;
+
+    @Value("${yanki.write-behind.shutdown-timeout:PT10S}")
+    private Duration shutdownTimeout;
+
+    @Value("${redis.ttl.transactions:PT24H}")
+    private Duration transactionCacheTtl;
+
+    private final Scheduler journalScheduler = Schedulers.newSingle("write-behind-journal");
+    private final Sinks.Many<SealedBatch> sealedBatches = Sinks.many().unicast().onBackpressureBuffer();
+    private final AtomicInteger pendingBatches = new AtomicInteger();
+    private final Map<String, TransactionYanki> unflushed = new ConcurrentHashMap<>();
+
+    /** Solo se usan desde {@link #journalScheduler}. */
+    private TransactionJournal journal;
+    private List<TransactionYankiEntity> currentBatch = new ArrayList<>();
+    private long firstSequence;
+
+    private Disposable sealTicker;
+    private Disposable flusher;
+
+    public TransactionWriteBehind(TransactionYankiRepository repository,
+                                  TwoLevelCache<TransactionYanki> transactionCache,
+                                  TransactionYankiMapper mapper,
+                                  MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionCache = transactionCache;
+        this.mapper = mapper;
+        this.flushTimer = Timer.builder("yanki.write-behind.flush")
+                .description("Duración del vaciado de un lote a Mongo y Redis")
+                .register(meterRegistry);
+        this.flushedTransactions = Counter.builder("yanki.write-behind.transactions")
+                .tag("result", "flushed")
+                .register(meterRegistry);
+        this.rejectedTransactions = Counter.builder("yanki.write-behind.transactions")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.parkedTransactions = Counter.builder("yanki.write-behind.transactions")
+                .tag("result", "parked")
+                .register(meterRegistry);
+        Gauge.builder("yanki.write-behind.pending", unflushed, Map::size)
+                .description("Transacciones confirmadas aún no escritas en Mongo")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Abre un segmento nuevo, posterior a los que existan en disco, para que la reescritura de
+     * {@link #run} y el tráfico nuevo no compartan fichero.
+     */
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<Path> existing = TransactionJournal.segments(directory);
+        firstSequence = existing.isEmpty() ? 0 : TransactionJournal.sequenceOf(existing.get(existing.size() - 1)) + 1;
+        journal = new TransactionJournal(directory, firstSequence, fsync);
+        flusher = sealedBatches.asFlux()
+                .concatMap(batch -> Mono.defer(() -> flush(batch))
+                        .retryWhen(Retry.backoff(maxFlushRetries, Duration.ofMillis(100))
+                                .maxBackoff(Duration.ofSeconds(5))
+                                .doBeforeRetry(signal -> log.warn("Reintentando el vaciado del lote {}: {}",
+                                        batch.segment().getFileName(), signal.failure().getMessage())))
+                        .onErrorResume(error -> park(batch, error)))
+                .subscribe();
+        sealTicker = Flux.interval(flushInterval, flushInterval, journalScheduler)
+                .subscribe(tick -> {
+                    try {
+                        sealIfNotEmpty();
+                    } catch (RuntimeException e) {
+                        log.error("No se pudo cerrar el segmento del diario: {}", e.getMessage());
+                    }
+                });
+        log.info("Escritura diferida de transacciones activada en {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Reescribe en Mongo y Redis los segmentos que quedaron en disco de una ejecución anterior.
+     * Usa upserts porque parte de un segmento pudo llegar a Mongo antes de la caída. Sus
+     * transacciones se registran como pendientes antes de escribirlas, para que una consulta
+     * durante la reescritura no las dé por inexistentes.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        for (Path segment : TransactionJournal.segments(directory)) {
+            if (enabled && TransactionJournal.sequenceOf(segment) >= firstSequence) {
+                continue;
+            }
+            List<TransactionYankiEntity> entities = TransactionJournal.read(segment);
+            if (!entities.isEmpty()) {
+                entities.forEach(entity -> unflushed.put(entity.getId(), mapper.toDomain(entity)));
+                repository.saveAll(entities)
+                        .collectList()
+                        .flatMap(saved -> transactionCache.putAll(toCacheEntries(saved), transactionCacheTtl))
+                        .block();
+            }
+            Files.delete(segment);
+            entities.forEach(entity -> unflushed.remove(entity.getId()));
+            log.info("Reaplicadas {} transacciones del diario {}", entities.size(), segment.getFileName());
+        }
+    }
+
+    /**
+     * Anexa la transacción al diario y la deja pendiente de escritura. Asigna el id si no lo tiene.
+     *
+     * @return La transacción ya registrada en el diario, o error {@link RejectedExecutionException}
+     * si hay demasiados lotes sin vaciar o el diario no admite escrituras
+     */
+    public Mono<TransactionYankiEntity> enqueue(TransactionYankiEntity entity) {
+        return Mono.fromCallable(() -> {
+            if (pendingBatches.get() >= maxPendingBatches) {
+                rejectedTransactions.increment();
+                throw new RejectedExecutionException("Escritura diferida saturada: "
+                        + pendingBatches.get() + " lotes pendientes");
+            }
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId().toHexString());
+            }
+            try {
+                journal.append(entity);
+            } catch (IOException e) {
+                rejectedTransactions.increment();
+                throw new RejectedExecutionException("Diario de escritura diferida no disponible: " + e.getMessage(), e);
+            }
+            currentBatch.add(entity);
+            unflushed.put(entity.getId(), mapper.toDomain(entity));
+            if (currentBatch.size() >= batchSize) {
+                try {
+                    seal();
+                } catch (UncheckedIOException e) {
+                    // El registro ya está en el diario y en el lote en curso: el próximo cierre lo incluye
+                    log.error("No se pudo cerrar el segmento del diario: {}", e.getMessage());
+                }
+            }
+            return entity;
+        }).subscribeOn(journalScheduler);
+    }
+
+    /**
+     * @return La transacción si sigue pendiente de escritura en esta instancia
+     */
+    public Mono<TransactionYanki> findUnflushed(String transactionId) {
+        return Mono.justOrEmpty(unflushed.get(transactionId));
+    }
+
+    private void sealIfNotEmpty() {
+        if (!currentBatch.isEmpty()) {
+            seal();
+        }
+    }
+
+    private void seal() {
+        Path segment;
+        try {
+            segment = journal.roll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<TransactionYankiEntity> batch = currentBatch;
+        currentBatch = new ArrayList<>();
+        pendingBatches.incrementAndGet();
+        sealedBatches.emitNext(new SealedBatch(segment, batch), Sinks.EmitFailureHandler.FAIL_FAST);
+    }
+
+    private Mono<Void> flush(SealedBatch batch) {
+        long start = System.nanoTime();
+        return repository.insert(batch.entities())
+                .then()
+                .onErrorResume(DuplicateKeyException.class, error -> repository.saveAll(batch.entities()).then())
+                .then(transactionCache.putAll(toCacheEntries(batch.entities()), transactionCacheTtl)
+                        .onErrorResume(error -> {
+                            log.warn("No se pudo actualizar Redis tras vaciar el lote {}: {}",
+                                    batch.segment().getFileName(), error.getMessage());
+                            return Mono.empty();
+                        }))
+                .then(Mono.fromCallable(() -> Files.deleteIfExists(batch.segment()))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .doOnSuccess(ignored -> {
+                    batch.entities().forEach(entity -> unflushed.remove(entity.getId()));
+                    pendingBatches.decrementAndGet();
+                    flushedTransactions.increment(batch.entities().size());
+                    flushTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                })
+                .then();
+    }
+
+    /**
+     * Se agotaron los reintentos: el lote se aparta para que no bloquee a los siguientes. Si ni
+     * siquiera se puede apartar, el segmento queda en el diario y se reaplica en el próximo arranque.
+     */
+    private Mono<Void> park(SealedBatch batch, Throwable error) {
+        Throwable cause = error.getCause() == null ? error : error.getCause();
+        return Mono.fromCallable(() -> TransactionJournal.park(batch.segment()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(parked -> log.error("El lote {} no se pudo escribir tras {} reintentos; "
+                                + "apartadas {} transacciones en {}", batch.segment().getFileName(), maxFlushRetries,
+                        batch.entities().size(), parked, cause))
+                .onErrorResume(IOException.class, parkError -> {
+                    log.error("No se pudo apartar el lote {}; se reaplicará desde el diario al arrancar: {}",
+                            batch.segment().getFileName(), parkError.getMessage(), cause);
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(() -> {
+                    batch.entities().forEach(entity -> unflushed.remove(entity.getId()));
+                    pendingBatches.decrementAndGet();
+                    parkedTransactions.increment(batch.entities().size());
+                }));
+    }
+
+    private Map<String, TransactionYanki> toCacheEntries(List<TransactionYankiEntity> entities) {
+        Map<String, TransactionYanki> entries = new LinkedHashMap<>();
+        entities.forEach(entity -> entries.put("transaction:" + entity.getId(), mapper.toDomain(entity)));
+        return entries;
+    }
+
+    /**
+     * Cierra el lote en curso y espera a que se vacíen los pendientes hasta {@code shutdown-timeout};
+     * lo que no dé tiempo a escribir queda en el diario para el siguiente arranque.
+     */
+    @PreDestroy
+    void stop() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        sealTicker.dispose();
+        Mono.fromRunnable(this::sealIfNotEmpty).subscribeOn(journalScheduler).block();
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        while (pendingBatches.get() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (pendingBatches.get() > 0) {
+            log.warn("Quedan {} lotes sin vaciar; se reaplicarán desde el diario al arrancar", pendingBatches.get());
+        }
+        flusher.dispose();
+        Mono.fromCallable(() -> {
+            journal.close();
+            return true;
+        }).subscribeOn(journalScheduler).block();
+        journalScheduler.dispose();
+    }
+
+    private record SealedBatch(Path segment, List<TransactionYankiEntity> entities) {
+    }
+}
@@ -0,0 +1,35 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.service.UserYankiService;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes debit card status changes (payload: card id) and drops the cached validation result
+ * for that card. The eviction reaches Redis and, through the invalidation bus, the local cache of
+ * every instance, so a single consumer group is enough.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DebitCardStatusListener {
+
+    private final UserYankiService userYankiService;
+
+    @KafkaListener(
+            topics = "${kafka.topics.debit-card-status:debit-card-status-events}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void listenForDebitCardStatusChanges(MessageWrapper<?> message) {
+        if (message.getPayload() == null) {
+            log.warn("Ignoring debit card status event without card id: {}", message);
+            return;
+        }
+        String debitCardId = message.getPayload().toString();
+        log.debug("Debit card {} changed status, evicting cached validation", debitCardId);
+        // Blocking keeps the offset uncommitted until the eviction is done
+        userYankiService.invalidateDebitCardValidation(debitCardId).block();
+    }
+}
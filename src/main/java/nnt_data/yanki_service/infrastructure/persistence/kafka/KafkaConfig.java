@@ -2,8 +2,10 @@ package nnt_data.yanki_service.infrastructure.persistence.kafka;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,11 +13,18 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -26,6 +35,21 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${kafka.producer.max-in-flight:512}")
+    private int producerMaxInFlight;
+
+    @Value("${kafka.validation.max-poll-records:500}")
+    private int validationMaxPollRecords;
+
+    @Value("${kafka.validation.commit-interval:PT1S}")
+    private Duration validationCommitInterval;
+
+    @Value("${kafka.validation.max-deferred-commits:1000}")
+    private int validationMaxDeferredCommits;
+
+    @Value("${kafka.reply.concurrency:3}")
+    private int replyConcurrency;
+
     @Bean
     public JsonDeserializer<MessageWrapper<?>> jsonDeserializer() {
         JsonDeserializer<MessageWrapper<?>> deserializer = new JsonDeserializer<>(MessageWrapper.class);
@@ -50,22 +74,48 @@ public class KafkaConfig {
         );
     }
 
-    @Bean
-    @Primary
-    public ProducerFactory<String, Object> producerFactory() {
+    private Map<String, Object> producerConfigs() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, "20971520");
+        return configProps;
+    }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+    /**
+     * Único productor de la aplicación: todos los envíos pasan por {@link ReactiveKafkaProducer}.
+     */
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, Object> kafkaSender() {
+        SenderOptions<String, Object> options = SenderOptions.<String, Object>create(producerConfigs())
+                .maxInFlight(producerMaxInFlight)
+                .stopOnError(false);
+        return KafkaSender.create(options);
     }
 
+    /**
+     * Receiver reactivo para las solicitudes de validación de usuarios Yanki. Los offsets se
+     * confirman manualmente (acknowledge) una vez enviada la respuesta; maxDeferredCommits
+     * permite confirmarlos fuera de orden cuando los lotes se procesan en paralelo.
+     */
     @Bean
-    @Primary
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaReceiver<String, String> yankiValidationReceiver(
+            @Value("${kafka.topics.yanki-validation-request}") String topic) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, validationMaxPollRecords);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        ReceiverOptions<String, String> options = ReceiverOptions.<String, String>create(props)
+                .subscription(List.of(topic))
+                .commitInterval(validationCommitInterval)
+                .maxDeferredCommits(validationMaxDeferredCommits);
+        return KafkaReceiver.create(options);
     }
 
     @Bean
@@ -76,6 +126,32 @@ public class KafkaConfig {
         return factory;
     }
 
+    /**
+     * Consumidor de respuestas request-reply: por lotes y con varios hilos (ver {@link KafkaReplyListener}).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MessageWrapper<?>> replyListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, MessageWrapper<?>> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(replyConcurrency);
+        return factory;
+    }
+
+    /**
+     * Tópico de respuestas de esta instancia; KafkaAdmin lo crea al arrancar si no existe.
+     */
+    @Bean
+    public NewTopic replyTopic(KafkaReplyRouting replyRouting,
+                               @Value("${kafka.reply.partitions:3}") int partitions,
+                               @Value("${kafka.reply.retention:PT1H}") Duration retention) {
+        return TopicBuilder.name(replyRouting.getReplyTopic())
+                .partitions(partitions)
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(retention.toMillis()))
+                .build();
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
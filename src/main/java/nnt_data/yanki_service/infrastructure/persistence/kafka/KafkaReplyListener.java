@@ -0,0 +1,55 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.service.KafkaService;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Completes the request-reply exchanges waiting on this instance. Reads this instance's reply topic and
+ * the shared response topics in batches, with several consumer threads and a per-instance group (see
+ * {@link KafkaReplyRouting}). Replies owned by other instances, or by async transfers, are skipped.
+ */
+@Component
+@Slf4j
+public class KafkaReplyListener {
+
+    private final KafkaService kafkaService;
+    private final Counter matched;
+    private final Counter skipped;
+
+    public KafkaReplyListener(KafkaService kafkaService, MeterRegistry meterRegistry) {
+        this.kafkaService = kafkaService;
+        this.matched = replies(meterRegistry, "matched");
+        this.skipped = replies(meterRegistry, "skipped");
+    }
+
+    @KafkaListener(
+            topicPattern = "#{@kafkaReplyRouting.topicPattern}",
+            groupId = "#{@kafkaReplyRouting.groupId}",
+            containerFactory = "replyListenerContainerFactory",
+            properties = "auto.offset.reset=latest"
+    )
+    public void listenForReplies(List<MessageWrapper<?>> replies) {
+        int completed = 0;
+        for (MessageWrapper<?> reply : replies) {
+            if (reply != null && kafkaService.handleResponse(reply)) {
+                completed++;
+            }
+        }
+        matched.increment(completed);
+        skipped.increment(replies.size() - completed);
+        log.debug("Reply batch of {} messages, {} completed on this instance", replies.size(), completed);
+    }
+
+    private static Counter replies(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("yanki.kafka.replies")
+                .description("Replies read by this instance, by whether a pending request was waiting for them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Reply routing for request-reply that stays correct with several instances.
+ * <p>
+ * Every request carries this instance's reply topic in the {@code kafka_replyTopic} header, so a
+ * responder that honours it answers straight to the instance holding the pending request. Replies on
+ * the shared response topics ({@code kafka.response-topics-pattern}) still arrive for responders that
+ * ignore the header: the reply consumer uses a per-instance group, so every instance sees them and
+ * completes the ones it is waiting for.
+ * <p>
+ * The instance id defaults to the host name (the pod name in Kubernetes), so an instance that crashes
+ * and restarts reuses its reply topic and consumer group instead of leaving them behind.
+ */
+@Slf4j
+@Getter
+@Component
+public class KafkaReplyRouting {
+
+    private final String instanceId;
+    private final String replyTopic;
+    private final String groupId;
+    private final String topicPattern;
+    private final KafkaAdmin kafkaAdmin;
+    private final boolean deleteOnShutdown;
+
+    public KafkaReplyRouting(
+            KafkaAdmin kafkaAdmin,
+            @Value("${kafka.reply.instance-id:}") String instanceId,
+            @Value("${kafka.reply.topic-prefix:yanki-replies.}") String topicPrefix,
+            @Value("${spring.kafka.consumer.group-id}") String groupId,
+            @Value("${kafka.response-topics-pattern}") String responseTopicsPattern,
+            @Value("${kafka.reply.delete-on-shutdown:true}") boolean deleteOnShutdown) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.instanceId = (instanceId == null || instanceId.isBlank() ? hostName() : instanceId)
+                .replaceAll("[^a-zA-Z0-9._-]", "-");
+        this.replyTopic = topicPrefix + this.instanceId;
+        this.groupId = groupId + ".replies." + this.instanceId;
+        this.topicPattern = "(?:" + responseTopicsPattern + ")|" + Pattern.quote(replyTopic);
+        this.deleteOnShutdown = deleteOnShutdown;
+        log.info("Request-reply routed to reply topic {} (consumer group {})", replyTopic, this.groupId);
+    }
+
+    /**
+     * Falls back to a random id only when the host name cannot be resolved; that id is not reused
+     * after a crash, so its reply topic must then be cleaned up by hand.
+     */
+    static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String randomId = UUID.randomUUID().toString();
+            log.warn("Could not resolve the host name for kafka.reply.instance-id, using random id {}: {}",
+                    randomId, e.getMessage());
+            return randomId;
+        }
+    }
+
+    /**
+     * Adds the reply topic and correlation headers to an outgoing request.
+     */
+    public <V> ProducerRecord<String, V> withReplyHeaders(ProducerRecord<String, V> record, String correlationId) {
+        record.headers().add(KafkaHeaders.REPLY_TOPIC, replyTopic.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    /**
+     * Reply topics are per instance; drop ours on shutdown so restarted instances do not leave them behind.
+     * Runs after the listener containers have stopped.
+     */
+    @PreDestroy
+    public void deleteReplyTopic() {
+        if (!deleteOnShutdown) {
+            return;
+        }
+        try (AdminClient adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            adminClient.deleteTopics(List.of(replyTopic)).all().get(10, TimeUnit.SECONDS);
+            log.info("Deleted reply topic {}", replyTopic);
+        } catch (Exception e) {
+            log.warn("Could not delete reply topic {}: {}", replyTopic, e.getMessage());
+        }
+    }
+}
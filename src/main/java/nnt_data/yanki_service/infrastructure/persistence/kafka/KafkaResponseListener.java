@@ -2,25 +2,22 @@ package nnt_data.yanki_service.infrastructure.persistence.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import nnt_data.yanki_service.domain.service.KafkaService;
+import nnt_data.yanki_service.domain.service.TransactionYankiService;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Completes async transfers from the shared transaction response topic. It uses the shared consumer
+ * group, so each response is handled once across instances; the transfer state lives in Redis.
+ * Replies to requests waiting in memory are completed by {@link KafkaReplyListener} on the instance
+ * that sent them.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaResponseListener {
 
-    private final KafkaService kafkaService;
-
-    @KafkaListener(
-            topics = "${kafka.topics.debit-card-validation-response}",
-            containerFactory = "kafkaListenerContainerFactory"
-    )
-    public void listenForDebitCardValidationResponses(MessageWrapper<?> message) {
-        log.debug("Received message on debit card validation response topic: {}", message);
-        kafkaService.handleResponse(message);
-    }
+    private final TransactionYankiService transactionYankiService;
 
     @KafkaListener(
             topics = "${kafka.topics.transaction-responses}",
@@ -28,6 +25,13 @@ public class KafkaResponseListener {
     )
     public void listenForTransactionResponses(MessageWrapper<?> message) {
         log.debug("Received message on transaction response topic: {}", message);
-        kafkaService.handleResponse(message);
+        // Blocking keeps the offset uncommitted until the outcome is stored.
+        Boolean handled = transactionYankiService
+                .completeAsyncTransaction(message.getCorrelationId(), message.getPayload())
+                .block();
+        if (!Boolean.TRUE.equals(handled)) {
+            log.debug("CorrelationId {} is not an async transfer; synchronous replies are handled by KafkaReplyListener",
+                    message.getCorrelationId());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de solicitudes request-reply pendientes de respuesta en Kafka.
+ * <p>
+ * Las entradas se reparten en shards por correlationId y expiran en bloque sobre
+ * una rueda de tiempo (hashed timing wheel) atendida por un único hilo, en lugar de
+ * programar un timer por solicitud. El número de entradas en vuelo tiene un tope duro:
+ * al alcanzarlo, {@link #register(String, Duration)} rechaza la solicitud de inmediato.
+ */
+@Slf4j
+@Component
+public class PendingResponseRegistry {
+
+    private final Map<String, PendingResponse>[] shards;
+    private final int shardMask;
+    private final int maxInFlight;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder lateReplies = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    private final long tickNanos;
+    private final List<PendingResponse>[] wheel;
+    private final int wheelMask;
+    private final ConcurrentLinkedQueue<PendingResponse> incoming = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private volatile long currentTick;
+    private final ScheduledExecutorService ticker;
+
+    @SuppressWarnings("unchecked")
+    public PendingResponseRegistry(
+            @Value("${kafka.pending.shards:16}") int shardCount,
+            @Value("${kafka.pending.max-in-flight:10000}") int maxInFlight,
+            @Value("${kafka.pending.tick:PT0.1S}") Duration tick,
+            @Value("${kafka.pending.wheel-size:512}") int wheelSize,
+            MeterRegistry meterRegistry) {
+        int shardsPow2 = nextPowerOfTwo(shardCount);
+        this.shards = new Map[shardsPow2];
+        for (int i = 0; i < shardsPow2; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        this.shardMask = shardsPow2 - 1;
+        this.maxInFlight = maxInFlight;
+
+        int slots = nextPowerOfTwo(wheelSize);
+        this.wheel = new List[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.wheelMask = slots - 1;
+        this.tickNanos = Math.max(tick.toNanos(), TimeUnit.MILLISECONDS.toNanos(1));
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kafka-pending-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+
+        Gauge.builder("yanki.kafka.pending.size", size, AtomicInteger::get)
+                .description("Solicitudes request-reply en espera de respuesta")
+                .register(meterRegistry);
+        FunctionCounter.builder("yanki.kafka.pending.expired", expirations, LongAdder::sum)
+                .description("Solicitudes expiradas sin respuesta")
+                .register(meterRegistry);
+        FunctionCounter.builder("yanki.kafka.pending.late.replies", lateReplies, LongAdder::sum)
+                .description("Respuestas recibidas sin solicitud pendiente")
+                .register(meterRegistry);
+        FunctionCounter.builder("yanki.kafka.pending.rejected", rejections, LongAdder::sum)
+                .description("Solicitudes rechazadas por alcanzar el tope en vuelo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra una solicitud pendiente y devuelve el Mono que emitirá su respuesta.
+     * El Mono falla con {@link TimeoutException} si no llega respuesta antes del timeout.
+     *
+     * @param correlationId Identificador de correlación de la solicitud
+     * @param timeout Tiempo máximo de espera de la respuesta
+     * @return Mono con el payload de la respuesta
+     * @throws RejectedExecutionException si se alcanzó el tope de solicitudes en vuelo
+     */
+    public Mono<Object> register(String correlationId, Duration timeout) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= maxInFlight) {
+                rejections.increment();
+                throw new RejectedExecutionException(
+                        "Límite de solicitudes pendientes alcanzado: " + maxInFlight);
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        long deadlineTick = (System.nanoTime() - startNanos + timeout.toNanos() + tickNanos - 1) / tickNanos;
+        PendingResponse pending = new PendingResponse(correlationId, deadlineTick);
+        if (shardFor(correlationId).putIfAbsent(correlationId, pending) != null) {
+            size.decrementAndGet();
+            throw new IllegalStateException("correlationId duplicado: " + correlationId);
+        }
+        incoming.add(pending);
+        return pending.sink.asMono();
+    }
+
+    /**
+     * Completa la solicitud pendiente con el payload recibido.
+     *
+     * @return false si no había solicitud pendiente (respuesta tardía o desconocida)
+     */
+    public boolean complete(String correlationId, Object payload) {
+        PendingResponse pending = shardFor(correlationId).remove(correlationId);
+        if (pending == null || !pending.finish()) {
+            lateReplies.increment();
+            return false;
+        }
+        size.decrementAndGet();
+        pending.sink.tryEmitValue(payload);
+        return true;
+    }
+
+    /**
+     * Descarta una solicitud pendiente, por ejemplo cuando el suscriptor cancela.
+     */
+    public void remove(String correlationId) {
+        PendingResponse pending = shardFor(correlationId).remove(correlationId);
+        if (pending != null && pending.finish()) {
+            size.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long expirations() {
+        return expirations.sum();
+    }
+
+    public long lateReplies() {
+        return lateReplies.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private Map<String, PendingResponse> shardFor(String correlationId) {
+        int hash = correlationId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    /**
+     * Avanza la rueda hasta el tick correspondiente al tiempo actual. Solo lo ejecuta el hilo del ticker,
+     * por lo que los buckets no necesitan sincronización.
+     */
+    private void advance() {
+        try {
+            long target = (System.nanoTime() - startNanos) / tickNanos;
+            while (currentTick < target) {
+                long tick = currentTick + 1;
+                transferIncoming(tick);
+                expireBucket(tick);
+                currentTick = tick;
+            }
+        } catch (Exception e) {
+            log.error("Error al avanzar la rueda de expiración de solicitudes pendientes", e);
+        }
+    }
+
+    private void transferIncoming(long tick) {
+        PendingResponse pending;
+        while ((pending = incoming.poll()) != null) {
+            if (pending.isDone()) {
+                continue;
+            }
+            long slotTick = Math.max(pending.deadlineTick, tick);
+            wheel[(int) (slotTick & wheelMask)].add(pending);
+        }
+    }
+
+    private void expireBucket(long tick) {
+        List<PendingResponse> bucket = wheel[(int) (tick & wheelMask)];
+        int expired = 0;
+        for (Iterator<PendingResponse> it = bucket.iterator(); it.hasNext(); ) {
+            PendingResponse pending = it.next();
+            if (pending.isDone()) {
+                it.remove();
+            } else if (pending.deadlineTick <= tick) {
+                it.remove();
+                if (pending.finish()) {
+                    shardFor(pending.correlationId).remove(pending.correlationId, pending);
+                    size.decrementAndGet();
+                    expirations.increment();
+                    expired++;
+                    pending.sink.tryEmitError(new TimeoutException(
+                            "Tiempo de espera agotado para correlationId: " + pending.correlationId));
+                }
+            }
+        }
+        if (expired > 0) {
+            log.debug("Expiradas {} solicitudes pendientes en el tick {}", expired, tick);
+        }
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        int v = Math.max(1, value);
+        return v == 1 ? 1 : Integer.highestOneBit(v - 1) << 1;
+    }
+
+    private static final class PendingResponse {
+        private static final AtomicIntegerFieldUpdater<PendingResponse> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(PendingResponse.class, "state");
+
+        private final String correlationId;
+        private final long deadlineTick;
+        private final Sinks.One<Object> sink = Sinks.one();
+        private volatile int state;
+
+        private PendingResponse(String correlationId, long deadlineTick) {
+            this.correlationId = correlationId;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private boolean finish() {
+            return STATE.compareAndSet(this, 0, 1);
+        }
+
+        private boolean isDone() {
+            return state != 0;
+        }
+    }
+}
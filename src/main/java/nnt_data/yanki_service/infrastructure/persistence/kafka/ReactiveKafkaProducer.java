@@ -0,0 +1,93 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Productor Kafka no bloqueante compartido por todos los envíos del servicio.
+ * <p>
+ * Los registros entran en una única cola acotada que alimenta un {@link KafkaSender};
+ * el sender limita los envíos en vuelo ({@code kafka.producer.max-in-flight}) y cada
+ * resultado se entrega al Mono del llamador, de modo que un fallo del productor se
+ * propaga en cuanto ocurre. Si la cola está llena el envío se rechaza de inmediato.
+ * <p>
+ * Si el pipeline del sender termina con error se vuelve a suscribir con backoff; la cola
+ * sobrevive a la resuscripción, así que los registros pendientes se envían en cuanto vuelve.
+ */
+@Slf4j
+@Component
+public class ReactiveKafkaProducer {
+
+    private final Sinks.Many<SenderRecord<String, Object, Sinks.One<RecordMetadata>>> outbound;
+
+    public ReactiveKafkaProducer(
+            KafkaSender<String, Object> kafkaSender,
+            @Value("${kafka.producer.queue-capacity:8192}") int queueCapacity) {
+        // autoCancel=false: la cola no se cierra cuando el pipeline del sender se cancela por un error
+        this.outbound = Sinks.many().multicast().onBackpressureBuffer(queueCapacity, false);
+        Flux.defer(() -> kafkaSender.send(outbound.asFlux()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.error("El pipeline del productor Kafka terminó con error, reintentando",
+                                signal.failure())))
+                .subscribe(this::onResult,
+                        error -> log.error("El pipeline del productor Kafka terminó con error", error));
+    }
+
+    /**
+     * Publica un registro y completa cuando el broker lo confirma.
+     *
+     * @param record Registro a publicar
+     * @return Mono con la metadata del registro o error si el productor falla
+     */
+    public Mono<RecordMetadata> send(ProducerRecord<String, Object> record) {
+        return Mono.defer(() -> {
+            Sinks.One<RecordMetadata> result = Sinks.one();
+            Sinks.EmitResult emitResult;
+            // Las emisiones se serializan aquí: la cola no admite productores concurrentes
+            synchronized (outbound) {
+                emitResult = outbound.tryEmitNext(SenderRecord.create(record, result));
+            }
+            if (emitResult.isFailure()) {
+                return Mono.error(new RejectedExecutionException(
+                        "Productor Kafka saturado o detenido (" + emitResult + ") para el tópico " + record.topic()));
+            }
+            return result.asMono();
+        });
+    }
+
+    public Mono<RecordMetadata> send(String topic, String key, Object value) {
+        return send(new ProducerRecord<>(topic, key, value));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Completing the queue lets the sender drain in-flight records before it is closed
+        synchronized (outbound) {
+            outbound.tryEmitComplete();
+        }
+    }
+
+    private void onResult(SenderResult<Sinks.One<RecordMetadata>> result) {
+        Sinks.One<RecordMetadata> sink = result.correlationMetadata();
+        if (result.exception() != null) {
+            sink.tryEmitError(result.exception());
+        } else {
+            sink.tryEmitValue(result.recordMetadata());
+        }
+    }
+}
@@ -1,39 +1,30 @@
 package nnt_data.yanki_service.infrastructure.persistence.mapper;
 
 import nnt_data.yanki_service.entity.TransactionYanki;
-import nnt_data.yanki_service.entity.UserYanki;
 import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
-import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
-import org.springframework.beans.BeanUtils;
-import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
 
-@Component
-public class TransactionYankiMapper implements MapperInterface<TransactionYanki, TransactionYankiEntity> {
+/**
+ * Conversión entre el modelo OpenAPI y la entidad Mongo de transacciones. MapStruct genera la
+ * implementación en tiempo de compilación, sin reflexión en tiempo de ejecución.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface TransactionYankiMapper {
 
     /**
      * Convierte una entidad de dominio a una entidad de persistencia.
      *
      * @param domain Objeto de dominio a convertir
-     * @return Mono con la entidad de persistencia resultante
+     * @return Entidad de persistencia resultante
      */
-    @Override
-    public Mono<TransactionYankiEntity> toEntity(TransactionYanki domain) {
-        TransactionYankiEntity entity = new TransactionYankiEntity();
-        BeanUtils.copyProperties(domain, entity);
-        return Mono.just(entity);
-    }
+    TransactionYankiEntity toEntity(TransactionYanki domain);
 
     /**
      * Convierte una entidad de persistencia a una entidad de dominio.
      *
      * @param entity Entidad de persistencia a convertir
-     * @return Mono con el objeto de dominio resultante
+     * @return Objeto de dominio resultante
      */
-    @Override
-    public Mono<TransactionYanki> toDomain(TransactionYankiEntity entity) {
-        TransactionYanki domain = new TransactionYanki();
-        BeanUtils.copyProperties(entity, domain);
-        return Mono.just(domain);
-    }
+    TransactionYanki toDomain(TransactionYankiEntity entity);
 }
@@ -1,38 +1,30 @@
 package nnt_data.yanki_service.infrastructure.persistence.mapper;
 
-import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
-import org.springframework.beans.BeanUtils;
-import org.springframework.stereotype.Component;
 import nnt_data.yanki_service.entity.UserYanki;
-import reactor.core.publisher.Mono;
-
-@Component
-public class UserYankiMapper implements MapperInterface<UserYanki, UserYankiEntity> {
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
 
+/**
+ * Conversión entre el modelo OpenAPI y la entidad Mongo de usuarios. MapStruct genera la
+ * implementación en tiempo de compilación, sin reflexión en tiempo de ejecución.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserYankiMapper {
 
     /**
      * Convierte una entidad de dominio a una entidad de persistencia.
      *
      * @param domain Objeto de dominio a convertir
-     * @return Mono con la entidad de persistencia resultante
+     * @return Entidad de persistencia resultante
      */
-    @Override
-    public Mono<UserYankiEntity> toEntity(UserYanki domain) {
-        UserYankiEntity entity = new UserYankiEntity();
-        BeanUtils.copyProperties(domain, entity);
-        return Mono.just(entity);
-    }
+    UserYankiEntity toEntity(UserYanki domain);
 
     /**
      * Convierte una entidad de persistencia a una entidad de dominio.
      *
      * @param entity Entidad de persistencia a convertir
-     * @return Mono con el objeto de dominio resultante
+     * @return Objeto de dominio resultante
      */
-    @Override
-    public Mono<UserYanki> toDomain(UserYankiEntity entity) {
-        UserYanki domain = new UserYanki();
-        BeanUtils.copyProperties(entity, domain);
-        return Mono.just(domain);
-    }
+    UserYanki toDomain(UserYankiEntity entity);
 }
@@ -0,0 +1,99 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificación binaria de un tipo cacheado. Cada implementación escribe la versión actual de
+ * su formato y debe seguir sabiendo leer las versiones anteriores mientras existan en Redis.
+ *
+ * @param <T> Tipo codificado
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * @return Versión del formato que escribe {@link #write(Object, DataOutputStream)}
+     */
+    byte version();
+
+    void write(T value, DataOutputStream out) throws IOException;
+
+    T read(byte version, DataInputStream in) throws IOException;
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeVarInt(out, unscaled.length + 1);
+        out.write(unscaled);
+        writeVarInt(out, zigZag(value.scale()));
+    }
+
+    static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length - 1];
+        in.readFully(unscaled);
+        int scale = unZigZag(readVarInt(in));
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if (shift > 28) {
+                throw new IOException("VarInt demasiado largo");
+            }
+            current = in.readByte();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
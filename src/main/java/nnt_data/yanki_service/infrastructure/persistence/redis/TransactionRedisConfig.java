@@ -14,8 +14,9 @@ public class TransactionRedisConfig {
     @Bean
     public ReactiveRedisTemplate<String, TransactionYanki> transactionRedisTemplate(
             ReactiveRedisConnectionFactory factory) {
-        Jackson2JsonRedisSerializer<TransactionYanki> serializer =
-                new Jackson2JsonRedisSerializer<>(TransactionYanki.class);
+        VersionedBinaryRedisSerializer<TransactionYanki> serializer = new VersionedBinaryRedisSerializer<>(
+                new TransactionYankiBinaryCodec(),
+                new Jackson2JsonRedisSerializer<>(TransactionYanki.class));
         RedisSerializationContext.RedisSerializationContextBuilder<String, TransactionYanki> builder =
                 RedisSerializationContext.newSerializationContext(new StringRedisSerializer());
         RedisSerializationContext<String, TransactionYanki> context = builder.value(serializer).build();
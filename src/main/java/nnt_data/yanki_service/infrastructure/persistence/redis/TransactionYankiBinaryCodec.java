@@ -0,0 +1,50 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import nnt_data.yanki_service.entity.TransactionYanki;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.readDecimal;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.readString;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.writeDecimal;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.writeString;
+
+/**
+ * Formato v1: id, type, telefonoOrigen, telefonoDestino como cadenas UTF-8 con longitud varint
+ * (0 = null) y monto como valor sin escala más escala.
+ */
+public class TransactionYankiBinaryCodec implements BinaryCodec<TransactionYanki> {
+
+    private static final byte V1 = 1;
+
+    @Override
+    public byte version() {
+        return V1;
+    }
+
+    @Override
+    public void write(TransactionYanki transaction, DataOutputStream out) throws IOException {
+        writeString(out, transaction.getId());
+        writeString(out, transaction.getType() == null ? null : transaction.getType().getValue());
+        writeString(out, transaction.getTelefonoOrigen());
+        writeString(out, transaction.getTelefonoDestino());
+        writeDecimal(out, transaction.getMonto());
+    }
+
+    @Override
+    public TransactionYanki read(byte version, DataInputStream in) throws IOException {
+        if (version != V1) {
+            throw new IOException("Versión de TransactionYanki no soportada: " + version);
+        }
+        TransactionYanki transaction = new TransactionYanki();
+        transaction.setId(readString(in));
+        String type = readString(in);
+        transaction.setType(type == null ? null : TransactionYanki.TypeEnum.fromValue(type));
+        transaction.setTelefonoOrigen(readString(in));
+        transaction.setTelefonoDestino(readString(in));
+        transaction.setMonto(readDecimal(in));
+        return transaction;
+    }
+}
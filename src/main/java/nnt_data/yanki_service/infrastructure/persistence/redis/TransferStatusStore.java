@@ -0,0 +1,57 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import nnt_data.yanki_service.entity.EstadoTransferencia;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Estado de las transferencias asíncronas en Redis, para que cualquier instancia pueda
+ * responder la consulta de estado y completar la transferencia cuando llegue la respuesta del banco.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferStatusStore {
+
+    private static final String KEY_PREFIX = "transfer-status:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public Mono<EstadoTransferencia> save(EstadoTransferencia status, Duration ttl) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(status))
+                .flatMap(json -> redisTemplate.opsForValue().set(statusKey(status.getId()), json, ttl))
+                .thenReturn(status);
+    }
+
+    public Mono<EstadoTransferencia> find(String id) {
+        return redisTemplate.opsForValue()
+                .get(statusKey(id))
+                .handle((json, sink) -> {
+                    try {
+                        sink.next(objectMapper.readValue(json, EstadoTransferencia.class));
+                    } catch (IOException e) {
+                        sink.error(new IllegalStateException("Estado de transferencia ilegible: " + id, e));
+                    }
+                });
+    }
+
+    /**
+     * Reclama el derecho a fijar el resultado final de la transferencia. Solo una instancia (o una
+     * sola entrega del mensaje de respuesta) lo obtiene mientras dure la reclamación.
+     */
+    public Mono<Boolean> claimFinalization(String id, Duration ttl) {
+        return redisTemplate.opsForValue()
+                .setIfAbsent(statusKey(id) + ":final", "1", ttl)
+                .defaultIfEmpty(false);
+    }
+
+    private static String statusKey(String id) {
+        return KEY_PREFIX + id;
+    }
+}
@@ -17,8 +17,9 @@ public class UserRedisConfig {
     @Primary
     public ReactiveRedisTemplate<String, UserYanki> userRedisTemplate(
             ReactiveRedisConnectionFactory factory) {
-        Jackson2JsonRedisSerializer<UserYanki> serializer =
-                new Jackson2JsonRedisSerializer<>(UserYanki.class);
+        VersionedBinaryRedisSerializer<UserYanki> serializer = new VersionedBinaryRedisSerializer<>(
+                new UserYankiBinaryCodec(),
+                new Jackson2JsonRedisSerializer<>(UserYanki.class));
         RedisSerializationContext.RedisSerializationContextBuilder<String, UserYanki> builder =
                 RedisSerializationContext.newSerializationContext(new StringRedisSerializer());
         RedisSerializationContext<String, UserYanki> context = builder.value(serializer).build();
@@ -0,0 +1,54 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import nnt_data.yanki_service.entity.UserYanki;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.readString;
+import static nnt_data.yanki_service.infrastructure.persistence.redis.BinaryCodec.writeString;
+
+/**
+ * Formato v1: id, tipoDocumento, numeroDocumento, telefono, imei, correo, pin, tarjetaAsociada,
+ * como cadenas UTF-8 con longitud varint (0 = null).
+ */
+public class UserYankiBinaryCodec implements BinaryCodec<UserYanki> {
+
+    private static final byte V1 = 1;
+
+    @Override
+    public byte version() {
+        return V1;
+    }
+
+    @Override
+    public void write(UserYanki user, DataOutputStream out) throws IOException {
+        writeString(out, user.getId());
+        writeString(out, user.getTipoDocumento() == null ? null : user.getTipoDocumento().getValue());
+        writeString(out, user.getNumeroDocumento());
+        writeString(out, user.getTelefono());
+        writeString(out, user.getImei());
+        writeString(out, user.getCorreo());
+        writeString(out, user.getPin());
+        writeString(out, user.getTarjetaAsociada());
+    }
+
+    @Override
+    public UserYanki read(byte version, DataInputStream in) throws IOException {
+        if (version != V1) {
+            throw new IOException("Versión de UserYanki no soportada: " + version);
+        }
+        UserYanki user = new UserYanki();
+        user.setId(readString(in));
+        String tipoDocumento = readString(in);
+        user.setTipoDocumento(tipoDocumento == null ? null : UserYanki.TipoDocumentoEnum.fromValue(tipoDocumento));
+        user.setNumeroDocumento(readString(in));
+        user.setTelefono(readString(in));
+        user.setImei(readString(in));
+        user.setCorreo(readString(in));
+        user.setPin(readString(in));
+        user.setTarjetaAsociada(readString(in));
+        return user;
+    }
+}
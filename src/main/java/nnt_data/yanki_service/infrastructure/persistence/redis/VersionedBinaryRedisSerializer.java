@@ -0,0 +1,64 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Serializador Redis binario con cabecera {@code [MAGIC][versión]} seguida del cuerpo del
+ * {@link BinaryCodec}. Al leer, los valores que no empiezan por la marca se delegan en el
+ * serializador JSON anterior, de modo que las entradas existentes siguen siendo legibles
+ * durante el despliegue sin vaciar la caché.
+ *
+ * @param <T> Tipo serializado
+ */
+public class VersionedBinaryRedisSerializer<T> implements RedisSerializer<T> {
+
+    static final byte MAGIC = (byte) 0xB7;
+
+    private final BinaryCodec<T> codec;
+    private final RedisSerializer<T> legacySerializer;
+
+    public VersionedBinaryRedisSerializer(BinaryCodec<T> codec, RedisSerializer<T> legacySerializer) {
+        this.codec = codec;
+        this.legacySerializer = legacySerializer;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(MAGIC);
+            out.writeByte(codec.version());
+            codec.write(value, out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo serializar " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2));
+            return codec.read(bytes[1], in);
+        } catch (IOException e) {
+            throw new SerializationException("No se pudo deserializar el valor binario versión " + bytes[1], e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package nnt_data.yanki_service.infrastructure.persistence.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Crea y verifica al arrancar los índices declarados en las entidades de persistencia
+ * ({@code @Indexed}, {@code @CompoundIndex}). Si algún índice declarado no existe tras
+ * crearlos, el arranque falla en lugar de dejar consultas sin índice en producción.
+ * <p>
+ * Solo crea índices que faltan: nunca borra ni redefine uno existente, así que varias réplicas
+ * pueden arrancar a la vez sin pisarse. Cambiar las opciones de un índice (unicidad, TTL...) es
+ * una migración explícita, no algo que haga el arranque. Si la construcción de un índice sobre una
+ * colección grande tarda más que {@code yanki.mongo.indexes.timeout}, el arranque sigue y la
+ * creación y verificación terminan en segundo plano. Es el primero de los {@link ApplicationRunner}: la
+ * reaplicación del diario y el calentamiento de caché consultan ya con los índices creados.
+ */
+@Slf4j
+@Component
+@Order(1)
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    static final List<Class<?>> INDEXED_ENTITIES = List.of(UserYankiEntity.class, TransactionYankiEntity.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoPersistentEntityIndexResolver indexResolver;
+
+    @Value("${yanki.mongo.indexes.timeout:PT60S}")
+    private Duration timeout = Duration.ofSeconds(60);
+
+    public MongoIndexInitializer(ReactiveMongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CompletableFuture<Void> build = ensureIndexes().toFuture();
+        try {
+            build.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("La construcción de índices sigue en curso tras {}; se completa en segundo plano", timeout);
+            build.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.error("Falló la creación de índices en segundo plano", error);
+                } else {
+                    log.info("Índices creados y verificados en segundo plano");
+                }
+            });
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException("No se pudieron crear los índices", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpida la creación de índices", e);
+        }
+    }
+
+    public Mono<Void> ensureIndexes() {
+        return Flux.fromIterable(INDEXED_ENTITIES)
+                .concatMap(this::ensureIndexes)
+                .then();
+    }
+
+    private Mono<Void> ensureIndexes(Class<?> entityType) {
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(entityType);
+        List<IndexDefinition> declared = new ArrayList<>();
+        indexResolver.resolveIndexFor(entityType).forEach(declared::add);
+
+        return Flux.fromIterable(declared)
+                .concatMap(indexOps::ensureIndex)
+                .then(indexOps.getIndexInfo().collectList())
+                .doOnNext(existing -> verify(entityType, declared, existing))
+                .then();
+    }
+
+    private void verify(Class<?> entityType, List<IndexDefinition> declared, List<IndexInfo> existing) {
+        for (IndexDefinition definition : declared) {
+            Document keys = definition.getIndexKeys();
+            boolean present = existing.stream().anyMatch(info -> keysOf(info).equals(keys));
+            if (!present) {
+                throw new IllegalStateException("Índice " + keys.toJson() + " no encontrado en la colección de "
+                        + entityType.getSimpleName());
+            }
+        }
+        log.info("Verificados {} índices declarados para {}", declared.size(), entityType.getSimpleName());
+    }
+
+    private static Document keysOf(IndexInfo info) {
+        Document keys = new Document();
+        info.getIndexFields().forEach(field ->
+                keys.append(field.getKey(), field.getDirection() == Sort.Direction.DESC ? -1 : 1));
+        return keys;
+    }
+}
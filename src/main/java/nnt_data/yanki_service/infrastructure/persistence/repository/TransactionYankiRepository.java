@@ -1,10 +1,45 @@
 package nnt_data.yanki_service.infrastructure.persistence.repository;
 
 import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
-import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
+
+/**
+ * Las consultas de historial paginan por cursor sobre {@code (fecha, _id)} en orden descendente,
+ * apoyadas en los índices compuestos de {@link TransactionYankiEntity}: cada página es un rango
+ * del índice, sin {@code skip} ni ordenación en memoria.
+ * <p>
+ * Los documentos antiguos sin {@code fecha} van al final (el nulo es el menor valor en orden
+ * descendente): las consultas {@code *Before} los incluyen tras el último con fecha, y las
+ * {@code *WithoutFechaBefore} continúan entre ellos por {@code _id}.
+ */
 @Repository
 public interface TransactionYankiRepository extends ReactiveMongoRepository<TransactionYankiEntity, String> {
+
+    @Query(value = "{ 'telefonoOrigen': ?0 }", sort = "{ 'fecha': -1, '_id': -1 }")
+    Flux<TransactionYankiEntity> findHistoryByTelefonoOrigen(String telefono, Pageable page);
+
+    @Query(value = "{ 'telefonoOrigen': ?0, $or: [ { 'fecha': { $lt: ?1 } }, { 'fecha': ?1, '_id': { $lt: ?2 } }, "
+            + "{ 'fecha': null } ] }",
+            sort = "{ 'fecha': -1, '_id': -1 }")
+    Flux<TransactionYankiEntity> findHistoryByTelefonoOrigenBefore(String telefono, Instant fecha, String id, Pageable page);
+
+    @Query(value = "{ 'telefonoOrigen': ?0, 'fecha': null, '_id': { $lt: ?1 } }", sort = "{ 'fecha': -1, '_id': -1 }")
+    Flux<TransactionYankiEntity> findHistoryByTelefonoOrigenWithoutFechaBefore(String telefono, String id, Pageable page);
+
+    @Query(value = "{ 'telefonoDestino': ?0 }", sort = "{ 'fecha': -1, '_id': -1 }")
+    Flux<TransactionYankiEntity> findHistoryByTelefonoDestino(String telefono, Pageable page);
+
+    @Query(value = "{ 'telefonoDestino': ?0, $or: [ { 'fecha': { $lt: ?1 } }, { 'fecha': ?1, '_id': { $lt: ?2 } }, "
+            + "{ 'fecha': null } ] }",
+            sort = "{ 'fecha': -1, '_id': -1 }")
+    Flux<TransactionYankiEntity> findHistoryByTelefonoDestinoBefore(String telefono, Instant fecha, String id, Pageable page);
+
+    @Query(value = "{ 'telefonoDestino': ?0, 'fecha': null, '_id': { $lt: ?1 } }", sort = "{ 'fecha': -1, '_id': -1 }")
+    Flux<TransactionYankiEntity> findHistoryByTelefonoDestinoWithoutFechaBefore(String telefono, String id, Pageable page);
 }
@@ -1,11 +1,24 @@
 package nnt_data.yanki_service.infrastructure.persistence.repository;
 
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserPhoneCardView;
 import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
 public interface UserYankiRepository extends ReactiveMongoRepository<UserYankiEntity, String> {
     Mono<UserYankiEntity> findByTelefono(String telefono);
+
+    Flux<UserPhoneCardView> findByTelefonoIn(Collection<String> telefonos);
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ '_id': 1 }")
+    Flux<UserYankiEntity> findIdsByIdIn(Collection<String> ids);
+
+    @Query(value = "{}", fields = "{ '_id': 1 }", sort = "{ '_id': 1 }")
+    Flux<UserYankiEntity> findAllIds();
 }
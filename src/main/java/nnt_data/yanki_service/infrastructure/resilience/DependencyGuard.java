@@ -0,0 +1,128 @@
+package nnt_data.yanki_service.infrastructure.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import nnt_data.yanki_service.infrastructure.jfr.JfrEvents;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker más bulkhead de semáforo sin espera para una dependencia externa (Kafka, Redis o Mongo).
+ * Con el circuito abierto o el bulkhead lleno la llamada falla al instante con
+ * {@link ServiceOverloadedException}, sin tocar la red.
+ */
+public class DependencyGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration retryAfter;
+
+    /**
+     * @param retryAfter Tiempo sugerido al cliente cuando se rechaza la llamada (la espera en abierto)
+     */
+    public DependencyGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, Duration retryAfter) {
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.retryAfter = retryAfter.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : retryAfter;
+    }
+
+    public String name() {
+        return circuitBreaker.getName();
+    }
+
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead bulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * @return true si el circuito no admite llamadas ahora mismo
+     */
+    public boolean isOpen() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return protect("call", call);
+    }
+
+    public <T> Flux<T> protect(Flux<T> call) {
+        return protect("call", call);
+    }
+
+    /**
+     * @param operation Nombre de la operación para el evento JFR {@code nnt_data.yanki.DependencyCall}
+     */
+    public <T> Mono<T> protect(String operation, Mono<T> call) {
+        return JfrEvents.dependencyCall(name(), operation, call)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(DependencyGuard::isRejection, this::overloaded);
+    }
+
+    public <T> Flux<T> protect(String operation, Flux<T> call) {
+        return JfrEvents.dependencyCall(name(), operation, call)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(DependencyGuard::isRejection, this::overloaded);
+    }
+
+    /**
+     * Variante para consultas que emiten un cursor al ritmo del consumidor (historial, lotes):
+     * el permiso del bulkhead y la medición del circuito cubren solo hasta el primer elemento,
+     * la finalización o el error, de modo que un consumidor lento no ocupa el bulkhead ni cuenta
+     * como llamada lenta. Los errores posteriores al primer elemento no se registran en el circuito.
+     */
+    public <T> Flux<T> protectStream(String operation, Flux<T> call) {
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Flux.error(overloaded(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)));
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return Flux.error(overloaded(BulkheadFullException.createBulkheadFullException(bulkhead)));
+            }
+            long start = circuitBreaker.getCurrentTimestamp();
+            AtomicBoolean settled = new AtomicBoolean();
+            return JfrEvents.dependencyCall(name(), operation, call)
+                    .doOnEach(signal -> {
+                        if (!signal.isOnSubscribe() && settled.compareAndSet(false, true)) {
+                            bulkhead.onComplete();
+                            long duration = circuitBreaker.getCurrentTimestamp() - start;
+                            if (signal.isOnError()) {
+                                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), signal.getThrowable());
+                            } else {
+                                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+                            }
+                        }
+                    })
+                    .doFinally(signal -> {
+                        // Cancelado antes del primer elemento: se libera sin registrar resultado
+                        if (settled.compareAndSet(false, true)) {
+                            bulkhead.onComplete();
+                            circuitBreaker.releasePermission();
+                        }
+                    });
+        });
+    }
+
+    private static boolean isRejection(Throwable error) {
+        return error instanceof CallNotPermittedException || error instanceof BulkheadFullException;
+    }
+
+    private ServiceOverloadedException overloaded(Throwable error) {
+        return new ServiceOverloadedException(name() + " no disponible: " + error.getMessage(), retryAfter);
+    }
+}
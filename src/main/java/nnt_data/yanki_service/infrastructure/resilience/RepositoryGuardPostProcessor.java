@@ -0,0 +1,46 @@
+package nnt_data.yanki_service.infrastructure.resilience;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Envuelve los repositorios reactivos de Mongo para que cada llamada pase por el guard de Mongo,
+ * sin tener que tocar cada uso del repositorio en los servicios. Las consultas que devuelven
+ * {@link Flux} se protegen solo hasta su primer resultado: el resto del cursor va al ritmo del consumidor.
+ */
+@Component
+public class RepositoryGuardPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<DependencyGuard> mongoGuard;
+
+    public RepositoryGuardPostProcessor(@Qualifier("mongoGuard") ObjectProvider<DependencyGuard> mongoGuard) {
+        this.mongoGuard = mongoGuard;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ReactiveCrudRepository<?, ?>)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            String operation = invocation.getMethod().getName();
+            if (result instanceof Mono<?> mono) {
+                return mongoGuard.getObject().protect(operation, mono);
+            }
+            if (result instanceof Flux<?> flux) {
+                return mongoGuard.getObject().protectStream(operation, flux);
+            }
+            return result;
+        });
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,116 @@
+package nnt_data.yanki_service.infrastructure.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Un {@link DependencyGuard} por dependencia externa, configurable con {@code yanki.resilience.<dependencia>.*}.
+ * El estado de cada circuito y la ocupación de cada bulkhead se exportan como métricas.
+ */
+@Slf4j
+@Configuration
+public class ResilienceConfig {
+
+    public static final String KAFKA = "kafka";
+    public static final String REDIS = "redis";
+    public static final String MONGO = "mongo";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+
+    /**
+     * Los errores de negocio (datos inválidos, claves duplicadas, saturación propia) no indican
+     * que la dependencia esté caída y no abren el circuito.
+     */
+    private static final Predicate<Throwable> DEPENDENCY_FAILURE = error ->
+            !(error instanceof IllegalArgumentException
+                    || error instanceof ServiceOverloadedException
+                    || error instanceof RejectedExecutionException
+                    || error instanceof org.springframework.dao.DuplicateKeyException
+                    || error instanceof com.mongodb.DuplicateKeyException);
+
+    @Bean
+    public DependencyGuard kafkaGuard(Environment environment, MeterRegistry meterRegistry) {
+        return guard(KAFKA, environment, meterRegistry, Duration.ofSeconds(5), Duration.ofSeconds(10), 200);
+    }
+
+    @Bean
+    public DependencyGuard redisGuard(Environment environment, MeterRegistry meterRegistry) {
+        return guard(REDIS, environment, meterRegistry, Duration.ofMillis(200), Duration.ofSeconds(5), 500);
+    }
+
+    @Bean
+    public DependencyGuard mongoGuard(Environment environment, MeterRegistry meterRegistry) {
+        return guard(MONGO, environment, meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(10), 200);
+    }
+
+    private DependencyGuard guard(String name, Environment environment, MeterRegistry meterRegistry,
+                                  Duration defaultSlowCall, Duration defaultWaitInOpen, int defaultMaxConcurrent) {
+        String prefix = "yanki.resilience." + name + ".";
+        Duration waitInOpen = environment.getProperty(prefix + "wait-in-open", Duration.class, defaultWaitInOpen);
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(environment.getProperty(prefix + "failure-rate-threshold", Float.class, 50f))
+                .slowCallDurationThreshold(environment.getProperty(prefix + "slow-call-duration", Duration.class, defaultSlowCall))
+                .slowCallRateThreshold(environment.getProperty(prefix + "slow-call-rate-threshold", Float.class, 80f))
+                .slidingWindowSize(environment.getProperty(prefix + "sliding-window-size", Integer.class, 50))
+                .minimumNumberOfCalls(environment.getProperty(prefix + "minimum-calls", Integer.class, 20))
+                .waitDurationInOpenState(waitInOpen)
+                .permittedNumberOfCallsInHalfOpenState(environment.getProperty(prefix + "half-open-calls", Integer.class, 5))
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(DEPENDENCY_FAILURE)
+                .build();
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(environment.getProperty(prefix + "max-concurrent-calls", Integer.class, defaultMaxConcurrent))
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, circuitBreakerConfig);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(name, bulkheadConfig);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuito {}: {}", name, event.getStateTransition()));
+        registerMetrics(circuitBreaker, bulkhead, meterRegistry);
+        return new DependencyGuard(circuitBreaker, bulkhead, waitInOpen);
+    }
+
+    private static void registerMetrics(CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        String name = circuitBreaker.getName();
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("yanki.resilience.circuit.state", circuitBreaker, cb -> cb.getState() == state ? 1 : 0)
+                    .tag("name", name)
+                    .tag("state", state.name().toLowerCase())
+                    .description("1 si el circuito está en este estado")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("yanki.resilience.circuit.failure.rate", circuitBreaker, cb -> cb.getMetrics().getFailureRate())
+                .tag("name", name)
+                .description("Porcentaje de fallos en la ventana; -1 hasta alcanzar el mínimo de llamadas")
+                .register(meterRegistry);
+        Gauge.builder("yanki.resilience.circuit.slow.rate", circuitBreaker, cb -> cb.getMetrics().getSlowCallRate())
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("yanki.resilience.circuit.not.permitted", circuitBreaker,
+                        cb -> cb.getMetrics().getNumberOfNotPermittedCalls())
+                .tag("name", name)
+                .description("Llamadas rechazadas al instante desde la última apertura del circuito")
+                .register(meterRegistry);
+        Gauge.builder("yanki.resilience.bulkhead.available", bulkhead, bh -> bh.getMetrics().getAvailableConcurrentCalls())
+                .tag("name", name)
+                .description("Llamadas concurrentes libres en el bulkhead")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,134 @@
+package nnt_data.yanki_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nnt_data.yanki_service.domain.service.KafkaService;
+import nnt_data.yanki_service.domain.service.UserYankiService;
+import nnt_data.yanki_service.infrastructure.persistence.kafka.MessageWrapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class YankiKafkaListenerTest {
+
+    private final KafkaReceiver<String, String> receiver = mock(KafkaReceiver.class);
+    private final KafkaService kafkaService = mock(KafkaService.class);
+    private final UserYankiService userYankiService = mock(UserYankiService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private YankiKafkaListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new YankiKafkaListener(receiver, kafkaService, userYankiService, objectMapper);
+        ReflectionTestUtils.setField(listener, "yankiResponseTopic", "yanki-validation-response");
+        ReflectionTestUtils.setField(listener, "batchSize", 10);
+        ReflectionTestUtils.setField(listener, "batchWindow", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(listener, "concurrency", 2);
+        ReflectionTestUtils.setField(listener, "replyRetries", 2);
+        ReflectionTestUtils.setField(listener, "replyBackoff", Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void answersABatchWithASingleExistenceQuery() throws Exception {
+        List<ReceiverOffset> offsets = new ArrayList<>();
+        List<ReceiverRecord<String, String>> records = List.of(
+                request("u1", "c1", 0, offsets),
+                request("u2", "c2", 1, offsets),
+                request("u3", "c3", 2, offsets));
+        when(receiver.receive()).thenReturn(Flux.fromIterable(records).concatWith(Flux.never()));
+        when(userYankiService.findExistingIds(anyCollection())).thenReturn(Mono.just(Set.of("u1", "u3")));
+        when(kafkaService.send(eq("yanki-validation-response"), any())).thenReturn(Mono.empty());
+
+        listener.start();
+
+        offsets.forEach(offset -> verify(offset, timeout(2000)).acknowledge());
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(userYankiService, times(1)).findExistingIds(ids.capture());
+        assertEquals(Set.of("u1", "u2", "u3"), Set.copyOf(ids.getValue()));
+
+        ArgumentCaptor<MessageWrapper<Boolean>> replies = ArgumentCaptor.forClass(MessageWrapper.class);
+        verify(kafkaService, times(3)).send(eq("yanki-validation-response"), replies.capture());
+        Map<String, Boolean> byCorrelation = new HashMap<>();
+        replies.getAllValues().forEach(reply -> byCorrelation.put(reply.getCorrelationId(), reply.getPayload()));
+        assertEquals(Map.of("c1", true, "c2", false, "c3", true), byCorrelation);
+    }
+
+    @Test
+    void retriesAFailedReplyBeforeAcknowledging() throws Exception {
+        List<ReceiverOffset> offsets = new ArrayList<>();
+        ReceiverRecord<String, String> record = request("u1", "c1", 0, offsets);
+        when(receiver.receive()).thenReturn(Flux.just(record).concatWith(Flux.never()));
+        when(userYankiService.findExistingIds(anyCollection())).thenReturn(Mono.just(Set.of("u1")));
+        AtomicInteger attempts = new AtomicInteger();
+        when(kafkaService.send(eq("yanki-validation-response"), any())).thenReturn(Mono.defer(() ->
+                attempts.incrementAndGet() == 1
+                        ? Mono.error(new IllegalStateException("broker no disponible"))
+                        : Mono.empty()));
+
+        listener.start();
+
+        verify(offsets.get(0), timeout(2000)).acknowledge();
+        assertEquals(2, attempts.get());
+        verify(userYankiService, times(1)).findExistingIds(anyCollection());
+    }
+
+    @Test
+    void failsTheBatchWhenTheReplyCannotBeSent() throws Exception {
+        List<ReceiverOffset> offsets = new ArrayList<>();
+        ReceiverRecord<String, String> record = request("u1", "c1", 0, offsets);
+        when(receiver.receive()).thenReturn(Flux.just(record).concatWith(Flux.never()));
+        when(userYankiService.findExistingIds(anyCollection())).thenReturn(Mono.just(Set.of("u1")));
+        when(kafkaService.send(eq("yanki-validation-response"), any()))
+                .thenReturn(Mono.error(new IllegalStateException("broker no disponible")));
+
+        listener.start();
+
+        // El pipeline se vuelve a suscribir y relee el registro desde el último offset confirmado
+        verify(userYankiService, timeout(3000).times(2)).findExistingIds(anyCollection());
+        verify(offsets.get(0), after(100).never()).acknowledge();
+    }
+
+    private ReceiverRecord<String, String> request(String userId, String correlationId, long offset,
+                                                   List<ReceiverOffset> offsets) throws Exception {
+        ReceiverOffset receiverOffset = mock(ReceiverOffset.class);
+        offsets.add(receiverOffset);
+        String value = objectMapper.writeValueAsString(new MessageWrapper<>(userId, correlationId));
+        return new ReceiverRecord<>(
+                new ConsumerRecord<>("yanki-validation-request", 0, offset, correlationId, value), receiverOffset);
+    }
+}
@@ -0,0 +1,61 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            new SimpleMeterRegistry(), true, 4, 2, 100, 2.0, 0.5);
+
+    @Test
+    void rejectsFastWhenLimitIsReachedAndReleasesOnCompletion() {
+        Sinks.One<String> blocked = Sinks.one();
+        for (int i = 0; i < 4; i++) {
+            limiter.execute(blocked::asMono).subscribe();
+        }
+        assertEquals(4, limiter.inFlight());
+
+        StepVerifier.create(limiter.execute(() -> Mono.just("ok")))
+                .expectErrorSatisfies(error -> {
+                    assertTrue(error instanceof ServiceOverloadedException);
+                    assertEquals(Duration.ofSeconds(1), ((ServiceOverloadedException) error).getRetryAfter());
+                })
+                .verify();
+
+        blocked.tryEmitValue("listo");
+        assertEquals(0, limiter.inFlight());
+        StepVerifier.create(limiter.execute(() -> Mono.just("ok"))).expectNext("ok").verifyComplete();
+    }
+
+    @Test
+    void growsWithStableLatencyAndShrinksWhenLatencyOrTimeoutsRise() {
+        Sinks.One<String> blocked = Sinks.one();
+        for (int i = 0; i < 4; i++) {
+            limiter.execute(blocked::asMono).subscribe();
+        }
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(Duration.ofMillis(50));
+        }
+        int grown = limiter.limit();
+        assertTrue(grown > 4, "el límite debería crecer con latencia estable: " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(Duration.ofMillis(500));
+        }
+        int slowed = limiter.limit();
+        assertTrue(slowed < grown, "el límite debería bajar con latencia alta: " + slowed);
+
+        limiter.onDrop();
+        assertTrue(limiter.limit() <= Math.max(2, slowed / 2));
+    }
+}
@@ -0,0 +1,118 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class CacheWarmUpTest {
+
+    @Test
+    void splitsLookbackIntoContiguousIdRangesNewestFirst() {
+        Instant now = Instant.parse("2026-10-17T12:00:00Z");
+
+        List<ObjectId[]> ranges = CacheWarmUp.idRanges(now, Duration.ofHours(8), 4);
+
+        assertEquals(4, ranges.size());
+        assertEquals(now.getEpochSecond() + 1, ranges.get(0)[1].getTimestamp());
+        assertTrue(ranges.get(3)[0].getTimestamp() <= now.minus(Duration.ofHours(8)).getEpochSecond());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1)[0], ranges.get(i)[1]);
+        }
+    }
+
+    @Test
+    void warmsRecentTransactionsAndTheirUsersWithinEntryBudget() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        TransactionYankiService transactionService = mock(TransactionYankiService.class);
+        UserYankiService userService = mock(UserYankiService.class);
+        PhoneCardLookupService phoneCardLookupService = mock(PhoneCardLookupService.class);
+        when(mongoTemplate.find(any(Query.class), eq(TransactionYankiEntity.class)))
+                .thenReturn(Flux.range(0, 10).map(i -> transaction("t" + i, "900000001", "90000000" + (i % 3 + 2))));
+        when(mongoTemplate.find(any(Query.class), eq(UserYankiEntity.class))).thenReturn(Flux.just(new UserYankiEntity()));
+        when(transactionService.warmUp(anyList())).thenAnswer(call -> Mono.just((long) ((List<?>) call.getArgument(0)).size()));
+        when(userService.warmUp(anyList())).thenReturn(Mono.just(1L));
+        when(phoneCardLookupService.warmUp(anyList())).thenReturn(Mono.just(1L));
+
+        CacheWarmUp warmUp = new CacheWarmUp(mongoTemplate, transactionService, userService, phoneCardLookupService,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(warmUp, "partitions", 2);
+        ReflectionTestUtils.setField(warmUp, "batchSize", 4);
+        ReflectionTestUtils.setField(warmUp, "maxEntries", 12L);
+
+        StepVerifier.create(warmUp.warmUp(Instant.now())).verifyComplete();
+
+        ArgumentCaptor<List<TransactionYankiEntity>> batches = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, atLeastOnce()).warmUp(batches.capture());
+        assertEquals(12, batches.getAllValues().stream().mapToInt(List::size).sum());
+        ArgumentCaptor<Query> userQueries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).find(userQueries.capture(), eq(UserYankiEntity.class));
+        long phonesQueried = userQueries.getAllValues().stream()
+                .mapToLong(query -> ((List<?>) query.getQueryObject().get("telefono", Document.class)
+                        .get("$in")).size())
+                .sum();
+        assertEquals(4, phonesQueried);
+    }
+
+    @Test
+    void spendsTheEntryBudgetOnTheNewestRangeFirst() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        TransactionYankiService transactionService = mock(TransactionYankiService.class);
+        UserYankiService userService = mock(UserYankiService.class);
+        PhoneCardLookupService phoneCardLookupService = mock(PhoneCardLookupService.class);
+        // El rango más reciente responde más lento que el antiguo: aun así debe consumirse primero
+        when(mongoTemplate.find(any(Query.class), eq(TransactionYankiEntity.class)))
+                .thenReturn(Flux.range(0, 4).map(i -> transaction("new" + i, "900000001", "900000002"))
+                                .delayElements(Duration.ofMillis(20)),
+                        Flux.range(0, 4).map(i -> transaction("old" + i, "900000001", "900000002")));
+        when(mongoTemplate.find(any(Query.class), eq(UserYankiEntity.class))).thenReturn(Flux.empty());
+        when(transactionService.warmUp(anyList())).thenAnswer(call -> Mono.just((long) ((List<?>) call.getArgument(0)).size()));
+        when(userService.warmUp(anyList())).thenReturn(Mono.just(0L));
+        when(phoneCardLookupService.warmUp(anyList())).thenReturn(Mono.just(0L));
+
+        CacheWarmUp warmUp = new CacheWarmUp(mongoTemplate, transactionService, userService, phoneCardLookupService,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(warmUp, "partitions", 2);
+        ReflectionTestUtils.setField(warmUp, "batchSize", 4);
+        ReflectionTestUtils.setField(warmUp, "maxEntries", 4L);
+
+        StepVerifier.create(warmUp.warmUp(Instant.now())).verifyComplete();
+
+        ArgumentCaptor<List<TransactionYankiEntity>> batches = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).warmUp(batches.capture());
+        assertEquals(List.of("new0", "new1", "new2", "new3"),
+                batches.getValue().stream().map(TransactionYankiEntity::getId).toList());
+    }
+
+    private static TransactionYankiEntity transaction(String id, String origen, String destino) {
+        TransactionYankiEntity entity = new TransactionYankiEntity();
+        entity.setId(id);
+        entity.setTelefonoOrigen(origen);
+        entity.setTelefonoDestino(destino);
+        return entity;
+    }
+}
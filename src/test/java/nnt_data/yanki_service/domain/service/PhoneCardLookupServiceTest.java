@@ -0,0 +1,147 @@
+package nnt_data.yanki_service.domain.service;
+
+import nnt_data.yanki_service.domain.service.PhoneCardLookupService.PhoneCard;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserPhoneCardView;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class PhoneCardLookupServiceTest {
+
+    private final UserYankiRepository repository = mock(UserYankiRepository.class);
+    private final TwoLevelCache<String> phoneCardCache = mock(TwoLevelCache.class);
+
+    private PhoneCardLookupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PhoneCardLookupService(repository, phoneCardCache);
+        ReflectionTestUtils.setField(service, "phoneCardCacheTtl", Duration.ofHours(1));
+        when(phoneCardCache.get(anyString())).thenReturn(Mono.empty());
+        when(phoneCardCache.put(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(call -> Mono.just(call.getArgument(1)));
+    }
+
+    @Test
+    void resolvesCacheMissesWithASingleQuery() {
+        when(phoneCardCache.get("phone-card:900000001")).thenReturn(Mono.just("card-1"));
+        when(repository.findByTelefonoIn(anyCollection()))
+                .thenReturn(Flux.just(view("900000002", "card-2"), view("900000003", null)));
+
+        StepVerifier.create(service.resolve(List.of("900000001", "900000002", "900000003", "900000002")))
+                .assertNext(cards -> {
+                    assertEquals(new PhoneCard("900000001", "card-1"), cards.get("900000001"));
+                    assertEquals(new PhoneCard("900000002", "card-2"), cards.get("900000002"));
+                    assertEquals(new PhoneCard("900000003", null), cards.get("900000003"));
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Collection<String>> queried = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).findByTelefonoIn(queried.capture());
+        assertEquals(Set.of("900000002", "900000003"), Set.copyOf(queried.getValue()));
+        verify(phoneCardCache).put("phone-card:900000002", "card-2", Duration.ofHours(1));
+        verify(phoneCardCache).put("phone-card:900000003", "", Duration.ofHours(1));
+    }
+
+    @Test
+    void marksUnknownPhonesAbsentAndSkipsThemNextTime() {
+        when(repository.findByTelefonoIn(anyCollection())).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.resolve(List.of("900000009")))
+                .expectNext(Map.of())
+                .verifyComplete();
+        verify(phoneCardCache).markAbsent("phone-card:900000009");
+
+        when(phoneCardCache.isKnownAbsent("phone-card:900000009")).thenReturn(true);
+        StepVerifier.create(service.resolve(List.of("900000009")))
+                .expectNext(Map.of())
+                .verifyComplete();
+        verify(repository).findByTelefonoIn(anyCollection());
+    }
+
+    @Test
+    void doesNotQueryTheDatabaseWhenEverythingIsCached() {
+        when(phoneCardCache.get("phone-card:900000001")).thenReturn(Mono.just(""));
+
+        StepVerifier.create(service.resolve(List.of("900000001")))
+                .assertNext(cards -> assertEquals(new PhoneCard("900000001", null), cards.get("900000001")))
+                .verifyComplete();
+        verify(repository, never()).findByTelefonoIn(anyCollection());
+    }
+
+    @Test
+    void flagsPhonesSharedBySeveralUsersAndDoesNotCacheThem() {
+        when(repository.findByTelefonoIn(anyCollection()))
+                .thenReturn(Flux.just(view("900000004", "card-4"), view("900000004", "card-5"),
+                        view("900000002", "card-2")));
+
+        StepVerifier.create(service.resolve(List.of("900000004", "900000002")))
+                .assertNext(cards -> {
+                    assertTrue(cards.get("900000004").duplicado());
+                    assertEquals(new PhoneCard("900000002", "card-2"), cards.get("900000002"));
+                })
+                .verifyComplete();
+
+        verify(phoneCardCache, never()).put(eq("phone-card:900000004"), anyString(), any(Duration.class));
+        verify(phoneCardCache, never()).markAbsent("phone-card:900000004");
+    }
+
+    @Test
+    void warmUpSkipsPhonesRepeatedInTheSample() {
+        when(phoneCardCache.preload(anyMap(), any(Duration.class))).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(service.warmUp(List.of(user("900000004", "card-4"), user("900000004", "card-5"),
+                        user("900000002", "card-2"))))
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(phoneCardCache).preload(Map.of("phone-card:900000002", "card-2"), Duration.ofHours(1));
+    }
+
+    private static UserYankiEntity user(String telefono, String tarjetaAsociada) {
+        UserYankiEntity user = new UserYankiEntity();
+        user.setTelefono(telefono);
+        user.setTarjetaAsociada(tarjetaAsociada);
+        return user;
+    }
+
+    private static UserPhoneCardView view(String telefono, String tarjetaAsociada) {
+        return new UserPhoneCardView() {
+            @Override
+            public String getTelefono() {
+                return telefono;
+            }
+
+            @Override
+            public String getTarjetaAsociada() {
+                return tarjetaAsociada;
+            }
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.domain.exception.IdempotencyKeyReuseException;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class TransactionIdempotencyServiceTest {
+
+    private final ReactiveRedisTemplate<String, TransactionYanki> resultTemplate = mock(ReactiveRedisTemplate.class);
+    private final ReactiveValueOperations<String, TransactionYanki> results = mock(ReactiveValueOperations.class);
+    private final ReactiveStringRedisTemplate claimTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveValueOperations<String, String> claims = mock(ReactiveValueOperations.class);
+
+    private TransactionIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        when(resultTemplate.opsForValue()).thenReturn(results);
+        when(claimTemplate.opsForValue()).thenReturn(claims);
+        when(results.get(anyString())).thenReturn(Mono.empty());
+        when(results.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(claims.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(claimTemplate.expire(anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        // Reclamación de 300 ms (timeout de Kafka 0 + margen), renovada cada 100 ms
+        service = new TransactionIdempotencyService(resultTemplate, claimTemplate, new SimpleMeterRegistry(),
+                Duration.ofHours(1), 0, Duration.ofMillis(300), Duration.ofMillis(50));
+    }
+
+    @Test
+    void retriesInFlightJoinTheOriginalExecution() {
+        AtomicInteger executions = new AtomicInteger();
+        Sinks.One<TransactionYanki> bank = Sinks.one();
+        TransactionYanki request = transfer("10.50");
+
+        Mono<TransactionYanki> first = service.execute("key-1", request, () -> {
+            executions.incrementAndGet();
+            return bank.asMono();
+        });
+        Mono<TransactionYanki> retry = service.execute("key-1", transfer("10.5"), () -> {
+            executions.incrementAndGet();
+            return Mono.just(new TransactionYanki());
+        });
+
+        StepVerifier.create(Mono.zip(first, retry))
+                .then(() -> bank.tryEmitValue(transfer("10.50").id("tx-1")))
+                .assertNext(both -> assertEquals(both.getT1(), both.getT2()))
+                .verifyComplete();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void storedResultIsReplayedAndDifferentPayloadIsRejected() {
+        TransactionYanki stored = transfer("25").id("tx-2");
+        when(results.get("idempotency:transaction:key-2")).thenReturn(Mono.just(stored));
+
+        StepVerifier.create(service.execute("key-2", transfer("25.00"),
+                        () -> Mono.error(new AssertionError("no debe volver a ejecutarse"))))
+                .expectNext(stored)
+                .verifyComplete();
+        StepVerifier.create(service.execute("key-2", transfer("30"), Mono::empty))
+                .expectError(IdempotencyKeyReuseException.class)
+                .verify();
+    }
+
+    @Test
+    void failedTransferReleasesTheClaim() {
+        when(claimTemplate.delete("idempotency:transaction:key-3:claim")).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(service.execute("key-3", transfer("5"),
+                        () -> Mono.error(new IllegalStateException("banco no disponible"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        verify(claimTemplate).delete("idempotency:transaction:key-3:claim");
+    }
+
+    @Test
+    void resultStoreFailureKeepsTheClaimAndReturnsTheTransfer() {
+        TransactionYanki done = transfer("5").id("tx-4");
+        when(results.set(anyString(), any(), any(Duration.class)))
+                .thenReturn(Mono.error(new IllegalStateException("redis no disponible")));
+
+        StepVerifier.create(service.execute("key-4", transfer("5"), () -> Mono.just(done)))
+                .expectNext(done)
+                .verifyComplete();
+        verify(claimTemplate, never()).delete(anyString());
+        verify(claimTemplate).expire("idempotency:transaction:key-4:claim", Duration.ofHours(1));
+    }
+
+    @Test
+    void claimIsRenewedWhileTheTransferRunsAndNotAfterwards() {
+        TransactionYanki done = transfer("5").id("tx-5");
+        String claimKey = "idempotency:transaction:key-5:claim";
+
+        StepVerifier.create(service.execute("key-5", transfer("5"),
+                        () -> Mono.delay(Duration.ofMillis(450)).thenReturn(done)))
+                .expectNext(done)
+                .verifyComplete();
+        verify(claimTemplate, atLeast(2)).expire(claimKey, Duration.ofMillis(300));
+
+        // Terminada la transferencia, la renovación se detiene
+        clearInvocations(claimTemplate);
+        Mono.delay(Duration.ofMillis(300)).block();
+        verify(claimTemplate, never()).expire(anyString(), any(Duration.class));
+    }
+
+    private static TransactionYanki transfer(String monto) {
+        return new TransactionYanki()
+                .type(TransactionYanki.TypeEnum.PAYMENT)
+                .telefonoOrigen("987654321")
+                .telefonoDestino("912345678")
+                .monto(new BigDecimal(monto));
+    }
+}
@@ -0,0 +1,135 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.entity.EstadoTransferencia;
+import nnt_data.yanki_service.entity.Transaction;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.infrastructure.metrics.TransferStageMetrics;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.journal.TransactionWriteBehind;
+import nnt_data.yanki_service.infrastructure.persistence.mapper.TransactionYankiMapperImpl;
+import nnt_data.yanki_service.infrastructure.persistence.redis.TransferStatusStore;
+import nnt_data.yanki_service.infrastructure.persistence.repository.TransactionYankiRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class TransactionYankiServiceAsyncTest {
+
+    private static final String ID = "665f1c2e9b1d4a3f8c7e6d5b";
+
+    private final TransactionYankiRepository repository = mock(TransactionYankiRepository.class);
+    private final TwoLevelCache<TransactionYanki> transactionCache = mock(TwoLevelCache.class);
+    private final TransferStatusStore statusStore = mock(TransferStatusStore.class);
+    private TransactionYankiService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionYankiService(repository, mock(PhoneCardLookupService.class),
+                mock(KafkaService.class), new TransactionYankiMapperImpl(), transactionCache, statusStore,
+                mock(TransactionWriteBehind.class), mock(AdaptiveConcurrencyLimiter.class),
+                new TransferStageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "kafkaTimeout", 30L);
+        ReflectionTestUtils.setField(service, "transactionCacheTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "asyncStatusTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "asyncClaimTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "asyncPollInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(service, "asyncFollowTimeout", Duration.ofSeconds(5));
+        when(statusStore.find(anyString())).thenReturn(Mono.empty());
+        when(statusStore.claimFinalization(anyString(), any())).thenReturn(Mono.just(true));
+        when(statusStore.save(any(), any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(repository.save(any(TransactionYankiEntity.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(transactionCache.put(anyString(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(1)));
+    }
+
+    @Test
+    void bankResponseCompletesPendingTransferUnderItsId() {
+        when(statusStore.find(ID)).thenReturn(Mono.just(pending(Instant.now())));
+
+        StepVerifier.create(service.completeAsyncTransaction(ID, new Transaction()))
+                .expectNext(true)
+                .verifyComplete();
+
+        ArgumentCaptor<TransactionYankiEntity> saved = ArgumentCaptor.forClass(TransactionYankiEntity.class);
+        verify(repository).save(saved.capture());
+        assertEquals(ID, saved.getValue().getId());
+        ArgumentCaptor<EstadoTransferencia> status = ArgumentCaptor.forClass(EstadoTransferencia.class);
+        verify(statusStore, atLeastOnce()).save(status.capture(), any());
+        assertEquals(EstadoTransferencia.EstadoEnum.COMPLETADA, status.getValue().getEstado());
+    }
+
+    @Test
+    void expiredPendingTransferIsReportedAsFailedWithoutPersisting() {
+        when(statusStore.find(ID)).thenReturn(Mono.just(pending(Instant.now().minusSeconds(60))));
+
+        StepVerifier.create(service.findTransferStatus(ID).map(EstadoTransferencia::getEstado))
+                .expectNext(EstadoTransferencia.EstadoEnum.FALLIDA)
+                .verifyComplete();
+        StepVerifier.create(service.completeAsyncTransaction("desconocido", new Transaction()))
+                .expectNext(false)
+                .verifyComplete();
+        verify(repository, never()).save(any(TransactionYankiEntity.class));
+        verify(statusStore).claimFinalization(eq(ID), any());
+    }
+
+    @Test
+    void followingStopsWhenTheStatusDisappears() {
+        AtomicInteger lookups = new AtomicInteger();
+        when(statusStore.find(ID)).thenAnswer(invocation -> lookups.incrementAndGet() <= 2
+                ? Mono.just(pending(Instant.now()))
+                : Mono.empty());
+
+        StepVerifier.create(service.followTransferStatus(ID).flatMapMany(Function.identity()))
+                .expectNextMatches(status -> status.getEstado() == EstadoTransferencia.EstadoEnum.PENDIENTE)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(service.followTransferStatus("desconocido"))
+                .verifyComplete();
+    }
+
+    @Test
+    void followingIsBoundedByTheTimeout() {
+        ReflectionTestUtils.setField(service, "asyncFollowTimeout", Duration.ofMillis(100));
+        when(statusStore.find(ID)).thenAnswer(invocation -> Mono.just(pending(Instant.now())));
+
+        StepVerifier.create(service.followTransferStatus(ID).flatMapMany(Function.identity()))
+                .expectNextMatches(status -> status.getEstado() == EstadoTransferencia.EstadoEnum.PENDIENTE)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static EstadoTransferencia pending(Instant acceptedAt) {
+        return new EstadoTransferencia(ID, EstadoTransferencia.EstadoEnum.PENDIENTE)
+                .transaccion(new TransactionYanki()
+                        .id(ID)
+                        .type(TransactionYanki.TypeEnum.PAYMENT)
+                        .telefonoOrigen("987654321")
+                        .telefonoDestino("912345678")
+                        .monto(BigDecimal.TEN))
+                .actualizado(Date.from(acceptedAt));
+    }
+}
@@ -0,0 +1,176 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.domain.service.PhoneCardLookupService.PhoneCard;
+import nnt_data.yanki_service.entity.ResultadoTransferencia;
+import nnt_data.yanki_service.entity.Transaction;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.entity.YankiTransactionRequest;
+import nnt_data.yanki_service.infrastructure.metrics.TransferStageMetrics;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.journal.TransactionWriteBehind;
+import nnt_data.yanki_service.infrastructure.persistence.mapper.TransactionYankiMapperImpl;
+import nnt_data.yanki_service.infrastructure.persistence.redis.TransferStatusStore;
+import nnt_data.yanki_service.infrastructure.persistence.repository.TransactionYankiRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class TransactionYankiServiceBulkTest {
+
+    private final TransactionYankiRepository repository = mock(TransactionYankiRepository.class);
+    private final PhoneCardLookupService phoneCardLookupService = mock(PhoneCardLookupService.class);
+    private final KafkaService kafkaService = mock(KafkaService.class);
+    private final TwoLevelCache<TransactionYanki> transactionCache = mock(TwoLevelCache.class);
+
+    private TransactionYankiService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionYankiService(repository, phoneCardLookupService, kafkaService,
+                new TransactionYankiMapperImpl(), transactionCache, mock(TransferStatusStore.class),
+                mock(TransactionWriteBehind.class), mock(AdaptiveConcurrencyLimiter.class),
+                new TransferStageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "transactionCacheTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "kafkaTimeout", 1L);
+        ReflectionTestUtils.setField(service, "bulkMaxItems", 10);
+        ReflectionTestUtils.setField(service, "bulkLookupBatchSize", 2);
+        ReflectionTestUtils.setField(service, "bulkBankConcurrency", 4);
+        ReflectionTestUtils.setField(service, "bulkWriteBatchSize", 10);
+        ReflectionTestUtils.setField(service, "bulkWriteWindow", Duration.ofSeconds(5));
+
+        when(phoneCardLookupService.resolve(any())).thenReturn(Mono.just(Map.of(
+                "900000001", new PhoneCard("900000001", "card-1"),
+                "900000002", new PhoneCard("900000002", "card-2"),
+                "900000003", new PhoneCard("900000003", "card-3"))));
+        when(kafkaService.sendAndReceive(any(), any(), any(YankiTransactionRequest.class), eq(Transaction.class), any()))
+                .thenAnswer(invocation -> {
+                    YankiTransactionRequest request = invocation.getArgument(2);
+                    return "card-3".equals(request.getDebitCardIdDestiny())
+                            ? Mono.error(new IllegalStateException("Banco no disponible"))
+                            : Mono.just(new Transaction());
+                });
+        when(repository.insert(any(Iterable.class))).thenAnswer(invocation ->
+                Flux.fromIterable((Iterable<TransactionYankiEntity>) invocation.getArgument(0)));
+        when(transactionCache.putAll(anyMap(), any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void reportsStatusPerItemAndPersistsAcceptedOnesInOneInsert() {
+        Flux<TransactionYanki> batch = Flux.just(
+                transfer("900000001", "900000002"),
+                transfer("900000001", "900000001"),
+                transfer("900000002", "900000003"),
+                transfer("900000002", "900000001"));
+
+        StepVerifier.create(service.createTransactions(batch)
+                        .sort(Comparator.comparing(ResultadoTransferencia::getIndice))
+                        .collectList())
+                .assertNext(results -> {
+                    assertEquals(List.of(
+                                    ResultadoTransferencia.EstadoEnum.CREADA,
+                                    ResultadoTransferencia.EstadoEnum.RECHAZADA,
+                                    ResultadoTransferencia.EstadoEnum.FALLIDA,
+                                    ResultadoTransferencia.EstadoEnum.CREADA),
+                            results.stream().map(ResultadoTransferencia::getEstado).toList());
+                    assertNotNull(results.get(0).getTransaccion().getId());
+                    assertNotNull(results.get(3).getTransaccion().getId());
+                })
+                .verifyComplete();
+
+        verify(repository, times(1)).insert(any(Iterable.class));
+        verify(repository, times(0)).save(any(TransactionYankiEntity.class));
+        verify(transactionCache, times(1)).putAll(anyMap(), any());
+        verify(phoneCardLookupService, times(2)).resolve(any());
+    }
+
+    @Test
+    void confirmedItemsAreUpsertedWhenTheInsertFails() {
+        ReflectionTestUtils.setField(service, "bulkWriteRetries", 2);
+        ReflectionTestUtils.setField(service, "bulkWriteRetryBackoff", Duration.ofMillis(1));
+        when(repository.insert(any(Iterable.class)))
+                .thenReturn(Flux.error(new IllegalStateException("Mongo no disponible")));
+        AtomicInteger upserts = new AtomicInteger();
+        when(repository.saveAll(any(Iterable.class))).thenAnswer(invocation -> upserts.incrementAndGet() == 1
+                ? Flux.error(new IllegalStateException("Mongo no disponible"))
+                : Flux.fromIterable((Iterable<TransactionYankiEntity>) invocation.getArgument(0)));
+
+        StepVerifier.create(service.createTransactions(Flux.just(
+                                transfer("900000001", "900000002"),
+                                transfer("900000002", "900000001")))
+                        .map(ResultadoTransferencia::getEstado)
+                        .collectList())
+                .expectNext(List.of(ResultadoTransferencia.EstadoEnum.CREADA, ResultadoTransferencia.EstadoEnum.CREADA))
+                .verifyComplete();
+        assertEquals(2, upserts.get());
+    }
+
+    @Test
+    void confirmedItemsAreNeverReportedAsFailed() {
+        ReflectionTestUtils.setField(service, "bulkWriteRetries", 1);
+        ReflectionTestUtils.setField(service, "bulkWriteRetryBackoff", Duration.ofMillis(1));
+        when(repository.insert(any(Iterable.class)))
+                .thenReturn(Flux.error(new IllegalStateException("Mongo no disponible")));
+        when(repository.saveAll(any(Iterable.class)))
+                .thenReturn(Flux.error(new IllegalStateException("Mongo no disponible")));
+        when(repository.save(any(TransactionYankiEntity.class)))
+                .thenReturn(Mono.error(new IllegalStateException("Mongo no disponible")));
+
+        StepVerifier.create(service.createTransactions(Flux.just(transfer("900000001", "900000002"))))
+                .assertNext(result -> {
+                    assertEquals(ResultadoTransferencia.EstadoEnum.CREADA, result.getEstado());
+                    assertNotNull(result.getTransaccion().getId());
+                    assertNotNull(result.getMensaje());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void itemsBeyondTheLimitAreNotReadAndRejectedOnce() {
+        AtomicInteger read = new AtomicInteger();
+        Flux<TransactionYanki> batch = Flux.range(0, 25)
+                .doOnNext(i -> read.incrementAndGet())
+                .map(i -> transfer("900000001", "900000002"));
+
+        StepVerifier.create(service.createTransactions(batch)
+                        .filter(result -> result.getEstado() == ResultadoTransferencia.EstadoEnum.RECHAZADA)
+                        .collectList())
+                .assertNext(rejected -> {
+                    assertEquals(1, rejected.size());
+                    assertEquals(10, rejected.get(0).getIndice());
+                })
+                .verifyComplete();
+        assertEquals(11, read.get());
+    }
+
+    private static TransactionYanki transfer(String origen, String destino) {
+        return new TransactionYanki()
+                .type(TransactionYanki.TypeEnum.PAYMENT)
+                .telefonoOrigen(origen)
+                .telefonoDestino(destino)
+                .monto(BigDecimal.TEN);
+    }
+}
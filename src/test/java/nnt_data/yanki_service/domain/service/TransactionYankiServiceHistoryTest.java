@@ -0,0 +1,122 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.entity.MovimientoHistorial;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.infrastructure.metrics.TransferStageMetrics;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.journal.TransactionWriteBehind;
+import nnt_data.yanki_service.infrastructure.persistence.mapper.TransactionYankiMapperImpl;
+import nnt_data.yanki_service.infrastructure.persistence.redis.TransferStatusStore;
+import nnt_data.yanki_service.infrastructure.persistence.repository.TransactionYankiRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class TransactionYankiServiceHistoryTest {
+
+    private static final String TELEFONO = "987654321";
+
+    private final TransactionYankiRepository repository = mock(TransactionYankiRepository.class);
+    private final TransactionYankiService service = new TransactionYankiService(repository,
+            mock(PhoneCardLookupService.class), mock(KafkaService.class),
+            new TransactionYankiMapperImpl(), mock(TwoLevelCache.class), mock(TransferStatusStore.class),
+            mock(TransactionWriteBehind.class), mock(AdaptiveConcurrencyLimiter.class),
+            new TransferStageMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void mergesSentAndReceivedNewestFirstAndResumesFromCursor() {
+        when(repository.findHistoryByTelefonoOrigen(eq(TELEFONO), any()))
+                .thenReturn(Flux.just(entity("a3", 300), entity("a1", 100)));
+        when(repository.findHistoryByTelefonoDestino(eq(TELEFONO), any()))
+                .thenReturn(Flux.just(entity("b2", 200), entity("b0", 50)));
+
+        List<MovimientoHistorial> firstPage = service.findHistory(TELEFONO, "todos", 3, null).collectList().block();
+
+        assertEquals(List.of("a3", "b2", "a1"),
+                firstPage.stream().map(movimiento -> movimiento.getTransaccion().getId()).toList());
+
+        when(repository.findHistoryByTelefonoOrigenBefore(eq(TELEFONO), any(), any(), any())).thenReturn(Flux.empty());
+        when(repository.findHistoryByTelefonoDestinoBefore(eq(TELEFONO), any(), any(), any()))
+                .thenReturn(Flux.just(entity("b0", 50)));
+
+        StepVerifier.create(service.findHistory(TELEFONO, "TODOS", 3, firstPage.get(2).getCursor())
+                        .map(movimiento -> movimiento.getTransaccion().getId()))
+                .expectNext("b0")
+                .verifyComplete();
+        verify(repository).findHistoryByTelefonoOrigenBefore(eq(TELEFONO), eq(Instant.ofEpochMilli(100)), eq("a1"), any());
+    }
+
+    @Test
+    void pagesThroughLegacyTransactionsWithoutFecha() {
+        when(repository.findHistoryByTelefonoOrigen(eq(TELEFONO), any()))
+                .thenReturn(Flux.just(entity("a5", 500), legacy("a4")));
+
+        List<MovimientoHistorial> firstPage = service.findHistory(TELEFONO, "ORIGEN", 2, null).collectList().block();
+        assertEquals(List.of("a5", "a4"),
+                firstPage.stream().map(movimiento -> movimiento.getTransaccion().getId()).toList());
+
+        // El cursor de un documento sin fecha sigue por id entre los documentos sin fecha
+        when(repository.findHistoryByTelefonoOrigenWithoutFechaBefore(eq(TELEFONO), eq("a4"), any()))
+                .thenReturn(Flux.just(legacy("a2"), legacy("a1")));
+        List<MovimientoHistorial> secondPage = service.findHistory(TELEFONO, "ORIGEN", 2, firstPage.get(1).getCursor())
+                .collectList().block();
+        assertEquals(List.of("a2", "a1"),
+                secondPage.stream().map(movimiento -> movimiento.getTransaccion().getId()).toList());
+
+        when(repository.findHistoryByTelefonoOrigenWithoutFechaBefore(eq(TELEFONO), eq("a1"), any()))
+                .thenReturn(Flux.empty());
+        StepVerifier.create(service.findHistory(TELEFONO, "ORIGEN", 2, secondPage.get(1).getCursor()))
+                .verifyComplete();
+        verify(repository, never()).findHistoryByTelefonoOrigenBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void todosMergesLegacyTransactionsAfterDatedOnes() {
+        when(repository.findHistoryByTelefonoOrigen(eq(TELEFONO), any()))
+                .thenReturn(Flux.just(legacy("a9")));
+        when(repository.findHistoryByTelefonoDestino(eq(TELEFONO), any()))
+                .thenReturn(Flux.just(entity("b1", 10), legacy("b7")));
+
+        StepVerifier.create(service.findHistory(TELEFONO, "TODOS", 3, null)
+                        .map(movimiento -> movimiento.getTransaccion().getId()))
+                .expectNext("b1", "b7", "a9")
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> service.findHistory(TELEFONO, "OTRO", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> service.findHistory(TELEFONO, "ORIGEN", 0, null));
+        assertThrows(IllegalArgumentException.class, () -> service.findHistory(TELEFONO, "ORIGEN", 10, "%%%"));
+    }
+
+    private static TransactionYankiEntity legacy(String id) {
+        TransactionYankiEntity entity = entity(id, 0);
+        entity.setFecha(null);
+        return entity;
+    }
+
+    private static TransactionYankiEntity entity(String id, long fechaMillis) {
+        TransactionYankiEntity entity = new TransactionYankiEntity();
+        entity.setId(id);
+        entity.setFecha(Instant.ofEpochMilli(fechaMillis));
+        entity.setTelefonoOrigen(TELEFONO);
+        entity.setType(TransactionYanki.TypeEnum.PAYMENT);
+        return entity;
+    }
+}
@@ -0,0 +1,135 @@
+package nnt_data.yanki_service.domain.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.entity.DebitCardValidationResponse;
+import nnt_data.yanki_service.entity.UserYanki;
+import nnt_data.yanki_service.infrastructure.persistence.cache.CacheInvalidationBus;
+import nnt_data.yanki_service.infrastructure.persistence.cache.RedisLoadLock;
+import nnt_data.yanki_service.infrastructure.persistence.cache.RefreshAhead;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.cache.UserIdMembershipIndex;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.mapper.UserYankiMapperImpl;
+import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
+import nnt_data.yanki_service.infrastructure.resilience.DependencyGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class UserYankiServiceCardValidationTest {
+
+    private final UserYankiRepository repository = mock(UserYankiRepository.class);
+    private final KafkaService kafkaService = mock(KafkaService.class);
+    private final TwoLevelCache<UserYanki> userCache = mock(TwoLevelCache.class);
+    private final PhoneCardLookupService phoneCardLookupService = mock(PhoneCardLookupService.class);
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter = mock(AdaptiveConcurrencyLimiter.class);
+    private final ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+
+    private UserYankiService service;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveRedisTemplate<String, String> redisTemplate = mock(ReactiveRedisTemplate.class);
+        CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenReturn(Mono.empty());
+        when(valueOps.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(valueOps.delete(anyString())).thenReturn(Mono.just(true));
+        when(invalidationBus.publish(anyString(), anyString())).thenReturn(Mono.empty());
+        TwoLevelCache<String> cardValidationCache = new TwoLevelCache<>("card-validations", redisTemplate,
+                invalidationBus,
+                new RedisLoadLock(mock(ReactiveStringRedisTemplate.class), false, Duration.ofSeconds(2),
+                        Duration.ofMillis(50), 10),
+                new DependencyGuard(CircuitBreaker.ofDefaults("redis"), Bulkhead.ofDefaults("redis"),
+                        Duration.ofSeconds(30)),
+                new RefreshAhead(0, 0), Duration.ofSeconds(10), 100, Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+
+        service = new UserYankiService(repository, new UserYankiMapperImpl(), kafkaService, userCache,
+                cardValidationCache, mock(UserIdMembershipIndex.class), phoneCardLookupService, concurrencyLimiter);
+        ReflectionTestUtils.setField(service, "userCacheTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "validCardTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "invalidCardTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "debitCardValidationRequestTopic", "debit-card-validation-requests");
+        ReflectionTestUtils.setField(service, "debitCardValidationResponseTopic", "debit-card-validation-responses");
+
+        when(concurrencyLimiter.execute(any()))
+                .thenAnswer(call -> ((Supplier<Mono<?>>) call.getArgument(0)).get());
+        UserYanki user = new UserYanki().id("u-1").telefono("987654321");
+        when(userCache.getOrLoad(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(user));
+        when(userCache.put(anyString(), any(), any())).thenAnswer(call -> Mono.just(call.getArgument(1)));
+        when(repository.save(any(UserYankiEntity.class))).thenAnswer(call -> Mono.just(call.getArgument(0)));
+        when(phoneCardLookupService.invalidate(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void coalescesConcurrentValidationsAndReusesTheResultUntilEvicted() {
+        Sinks.One<DebitCardValidationResponse> bank = Sinks.one();
+        when(kafkaService.sendAndReceive(anyString(), anyString(), any(), eq(DebitCardValidationResponse.class),
+                any(Duration.class))).thenReturn(bank.asMono(), Mono.just(valid()));
+
+        StepVerifier.create(Flux.range(0, 3)
+                        .flatMap(i -> service.asociateYankiUserToDebitCard("u-1", "card-1")))
+                .then(() -> bank.tryEmitValue(valid()))
+                .expectNextCount(3)
+                .verifyComplete();
+        StepVerifier.create(service.asociateYankiUserToDebitCard("u-1", "card-1"))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(kafkaService, times(1)).sendAndReceive(anyString(), anyString(), any(),
+                eq(DebitCardValidationResponse.class), any(Duration.class));
+
+        StepVerifier.create(service.invalidateDebitCardValidation("card-1")).verifyComplete();
+        StepVerifier.create(service.asociateYankiUserToDebitCard("u-1", "card-1"))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(kafkaService, times(2)).sendAndReceive(anyString(), anyString(), any(),
+                eq(DebitCardValidationResponse.class), any(Duration.class));
+    }
+
+    @Test
+    void cachesInvalidCardsWithTheirOwnTtl() {
+        DebitCardValidationResponse invalid = new DebitCardValidationResponse();
+        invalid.setIsValid(false);
+        invalid.setMessage("bloqueada");
+        when(kafkaService.sendAndReceive(anyString(), anyString(), any(), eq(DebitCardValidationResponse.class),
+                any(Duration.class))).thenReturn(Mono.just(invalid));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(service.asociateYankiUserToDebitCard("u-1", "card-2"))
+                    .expectErrorMessage("Tarjeta no válida: bloqueada")
+                    .verify();
+        }
+
+        verify(kafkaService, times(1)).sendAndReceive(anyString(), anyString(), any(),
+                eq(DebitCardValidationResponse.class), any(Duration.class));
+        verify(valueOps).set("card-validation:card-2", "0bloqueada", Duration.ofSeconds(30));
+    }
+
+    private static DebitCardValidationResponse valid() {
+        DebitCardValidationResponse response = new DebitCardValidationResponse();
+        response.setIsValid(true);
+        return response;
+    }
+}
@@ -0,0 +1,66 @@
+package nnt_data.yanki_service.infrastructure.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void returnsTheSameMonoWhenNoRecordingEnablesTheEvents() {
+        Mono<String> operation = Mono.just("ok");
+
+        assertSame(operation, JfrEvents.transferStage("bank", operation));
+        assertSame(operation, JfrEvents.dependencyCall("mongo", "save", operation));
+    }
+
+    @Test
+    void recordsStagesAndRequestRepliesThatTheReportBreaksDown() throws Exception {
+        Path file = directory.resolve("yanki.jfr");
+        try (Reader settings = new InputStreamReader(
+                getClass().getResourceAsStream("/jfr/yanki.jfc"), StandardCharsets.UTF_8);
+             Recording recording = new Recording(Configuration.create(settings))) {
+            recording.start();
+
+            JfrEvents.transferStage("bank", Mono.delay(Duration.ofMillis(15)).thenReturn("ok")).block();
+            JfrEvents.transferStage("lookup", Mono.error(new IllegalStateException("sin datos")))
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+            JfrEvents.dependencyCall("mongo", "save", Mono.delay(Duration.ofMillis(5))).block();
+            JfrEvents.RequestReply exchange = JfrEvents.beginRequestReply("corr-1", "transaction-requests");
+            Thread.sleep(5);
+            exchange.sent();
+            Thread.sleep(10);
+            exchange.finish("success");
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, JfrLatencyReport.Latencies> rows = JfrLatencyReport.summarize(file);
+
+        assertEquals(1, rows.get("transfer bank success").count());
+        assertTrue(rows.get("transfer bank success").percentileMillis(50) >= 15);
+        assertEquals(1, rows.get("transfer lookup error").count());
+        assertEquals(1, rows.get("mongo save success").count());
+        assertEquals(1, rows.get("kafka transaction-requests total success").count());
+        assertTrue(rows.get("kafka transaction-requests reply-wait").percentileMillis(50) >= 9);
+        assertTrue(rows.containsKey("kafka transaction-requests send"));
+    }
+}
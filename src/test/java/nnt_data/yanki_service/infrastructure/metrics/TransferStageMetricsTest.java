@@ -0,0 +1,38 @@
+package nnt_data.yanki_service.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferStageMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransferStageMetrics metrics = new TransferStageMetrics(meterRegistry);
+
+    @Test
+    void recordsEachStageWithItsOutcome() {
+        StepVerifier.create(metrics.time(TransferStageMetrics.BANK,
+                        Mono.delay(Duration.ofMillis(20)).thenReturn("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(metrics.time(TransferStageMetrics.MONGO_SAVE,
+                        Mono.error(new IllegalStateException("sin conexión"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        Timer bank = meterRegistry.get("yanki.transfer.stage")
+                .tag("stage", "bank").tag("outcome", "success").timer();
+        assertEquals(1, bank.count());
+        assertTrue(bank.totalTime(TimeUnit.MILLISECONDS) >= 20);
+        assertEquals(1, meterRegistry.get("yanki.transfer.stage")
+                .tag("stage", "mongo.save").tag("outcome", "error").timer().count());
+    }
+}
@@ -0,0 +1,48 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshAheadTest {
+
+    @Test
+    void refreshesMoreOftenAsExpiryApproaches() {
+        RefreshAhead refreshAhead = new RefreshAhead(1.0, 0);
+        refreshAhead.recordLoad(Duration.ofMillis(50));
+
+        long far = IntStream.range(0, 10_000).filter(i -> refreshAhead.shouldRefresh(60_000)).count();
+        long near = IntStream.range(0, 10_000).filter(i -> refreshAhead.shouldRefresh(10)).count();
+
+        assertTrue(far < 10);
+        assertTrue(near > 5_000);
+        assertTrue(refreshAhead.shouldRefresh(0));
+    }
+
+    @Test
+    void neverRefreshesWhenDisabledOrWithoutLoadSamples() {
+        RefreshAhead disabled = new RefreshAhead(0, 0);
+        disabled.recordLoad(Duration.ofSeconds(1));
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.shouldRefresh(0));
+        assertFalse(new RefreshAhead(1.0, 0).shouldRefresh(0));
+    }
+
+    @Test
+    void jittersTtlDownwardsWithinBound() {
+        RefreshAhead refreshAhead = new RefreshAhead(1.0, 0.1);
+        Duration ttl = Duration.ofMinutes(10);
+
+        IntStream.range(0, 1_000).mapToObj(i -> refreshAhead.jitter(ttl)).forEach(jittered -> {
+            assertTrue(jittered.compareTo(ttl) <= 0);
+            assertTrue(jittered.compareTo(Duration.ofMinutes(9)) >= 0);
+        });
+        assertEquals(ttl, new RefreshAhead(1.0, 0).jitter(ttl));
+    }
+}
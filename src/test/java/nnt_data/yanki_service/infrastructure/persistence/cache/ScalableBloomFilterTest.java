@@ -0,0 +1,41 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void hasNoFalseNegativesAndGrowsBeyondInitialCapacity() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user-" + i));
+        }
+        assertTrue(filter.stageCount() > 1);
+    }
+
+    @Test
+    void keepsObservedFalsePositiveRateNearTarget() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("user-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("unknown-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < 0.02, "fpp observada " + observed);
+        assertTrue(filter.estimatedFalsePositiveRate() < 0.02);
+    }
+}
@@ -0,0 +1,51 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger joins = new AtomicInteger();
+        Sinks.One<String> source = Sinks.one();
+
+        Flux<String> callers = Flux.range(0, 5)
+                .flatMap(i -> singleFlight.execute("user:1", () -> {
+                    loads.incrementAndGet();
+                    return source.asMono();
+                }, joins::incrementAndGet));
+
+        StepVerifier.create(callers)
+                .then(() -> source.tryEmitValue("value"))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(4, joins.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void completedLoadsAreNotReused() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(singleFlight.execute("user:2",
+                            () -> Mono.fromSupplier(() -> "v" + loads.incrementAndGet()), () -> { }))
+                    .expectNext("v" + (i + 1))
+                    .verifyComplete();
+        }
+        assertEquals(3, loads.get());
+    }
+}
@@ -0,0 +1,94 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.infrastructure.resilience.DependencyGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class TwoLevelCacheNegativeTest {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate = mock(ReactiveRedisTemplate.class);
+    private final ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TwoLevelCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenReturn(Mono.empty());
+        when(valueOps.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(invalidationBus.publish(anyString(), anyString())).thenReturn(Mono.empty());
+        cache = new TwoLevelCache<>("phone-cards", redisTemplate, invalidationBus,
+                new RedisLoadLock(mock(ReactiveStringRedisTemplate.class), false, Duration.ofSeconds(2),
+                        Duration.ofMillis(50), 10),
+                new DependencyGuard(CircuitBreaker.ofDefaults("redis"), Bulkhead.ofDefaults("redis"),
+                        Duration.ofSeconds(30)),
+                new RefreshAhead(0, 0), Duration.ofMinutes(1), 100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void remembersMissingKeysUntilTheyAreWritten() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(cache.getOrLoad("phone-card:999", () -> {
+                        loads.incrementAndGet();
+                        return Mono.empty();
+                    }, Duration.ofHours(1)))
+                    .verifyComplete();
+        }
+
+        assertEquals(1, loads.get());
+        assertTrue(cache.isKnownAbsent("phone-card:999"));
+        assertEquals(1, negativeRequests("miss"));
+        assertEquals(3, negativeRequests("hit"));
+
+        StepVerifier.create(cache.put("phone-card:999", "4111", Duration.ofHours(1)))
+                .expectNext("4111")
+                .verifyComplete();
+
+        assertFalse(cache.isKnownAbsent("phone-card:999"));
+        StepVerifier.create(cache.getOrLoad("phone-card:999", Mono::empty, Duration.ofHours(1)))
+                .expectNext("4111")
+                .verifyComplete();
+    }
+
+    @Test
+    void doesNotHideAValueWrittenWhileTheLoadWasInFlight() {
+        StepVerifier.create(cache.put("phone-card:1", "4111", Duration.ofHours(1)))
+                .expectNext("4111")
+                .verifyComplete();
+
+        cache.markAbsent("phone-card:1");
+
+        assertFalse(cache.isKnownAbsent("phone-card:1"));
+        StepVerifier.create(cache.get("phone-card:1"))
+                .expectNext("4111")
+                .verifyComplete();
+    }
+
+    private double negativeRequests(String result) {
+        return meterRegistry.get("yanki.cache.negative.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,128 @@
+package nnt_data.yanki_service.infrastructure.persistence.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.infrastructure.persistence.entity.UserYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.repository.UserYankiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class UserIdMembershipIndexTest {
+
+    private final UserYankiRepository repository = mock(UserYankiRepository.class);
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveValueOperations<String, String> valueOps = mock(ReactiveValueOperations.class);
+    private final AtomicLong version = new AtomicLong();
+
+    private Sinks.Many<ReactiveSubscription.Message<String, String>> channel;
+    private UserIdMembershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        channel = Sinks.many().multicast().directBestEffort();
+        doReturn(Mono.fromSupplier(() -> channel.asFlux()))
+                .when(redisTemplate).listenToChannelLater(UserIdMembershipIndex.CREATED_USERS_CHANNEL);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(UserIdMembershipIndex.USERS_VERSION_KEY))
+                .thenAnswer(call -> Mono.just(String.valueOf(version.get())));
+        when(valueOps.increment(UserIdMembershipIndex.USERS_VERSION_KEY))
+                .thenAnswer(call -> Mono.just(version.incrementAndGet()));
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        when(repository.findAllIds()).thenReturn(Flux.fromIterable(List.of(user("u1"), user("u2"))));
+
+        index = new UserIdMembershipIndex(repository, redisTemplate, 1_000, 0.01,
+                Duration.ofMillis(50), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    void answersNegativesOnlyOnceBuilt() {
+        assertFalse(index.isDefinitelyAbsent("desconocido"));
+
+        index.start();
+
+        assertTrue(index.isDefinitelyAbsent("desconocido"));
+        assertFalse(index.isDefinitelyAbsent("u1"));
+        assertFalse(index.isDefinitelyAbsent("u2"));
+    }
+
+    @Test
+    void appliesUsersCreatedByOtherInstances() {
+        index.start();
+
+        version.incrementAndGet();
+        channel.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(UserIdMembershipIndex.CREATED_USERS_CHANNEL, "u3"));
+
+        assertFalse(index.isDefinitelyAbsent("u3"));
+        assertTrue(index.isDefinitelyAbsent("desconocido"));
+    }
+
+    @Test
+    void addBumpsTheVersionAndPublishes() {
+        index.start();
+
+        StepVerifier.create(index.add("u3")).verifyComplete();
+
+        assertFalse(index.isDefinitelyAbsent("u3"));
+        verify(valueOps).increment(UserIdMembershipIndex.USERS_VERSION_KEY);
+        verify(redisTemplate).convertAndSend(UserIdMembershipIndex.CREATED_USERS_CHANNEL, "u3");
+    }
+
+    @Test
+    void fallsBackToTheDatabaseAndRebuildsWhenAMessageIsLost() {
+        index.start();
+        assertTrue(index.isDefinitelyAbsent("u3"));
+
+        // Otra instancia da de alta u3 pero el mensaje de pub/sub no llega
+        when(repository.findAllIds()).thenReturn(Flux.fromIterable(List.of(user("u1"), user("u2"), user("u3"))));
+        version.incrementAndGet();
+
+        // En cuanto la comprobación ve la versión adelantada deja de responder negativos
+        awaitUntil(() -> !index.isDefinitelyAbsent("u3"));
+        verify(repository, timeout(5000).times(2)).findAllIds();
+        awaitUntil(() -> index.isDefinitelyAbsent("desconocido"));
+        assertFalse(index.isDefinitelyAbsent("u3"));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("La condición no se cumplió a tiempo");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static UserYankiEntity user(String id) {
+        UserYankiEntity entity = new UserYankiEntity();
+        entity.setId(id);
+        return entity;
+    }
+}
@@ -0,0 +1,184 @@
+package nnt_data.yanki_service.infrastructure.persistence.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.infrastructure.persistence.cache.TwoLevelCache;
+import nnt_data.yanki_service.infrastructure.persistence.entity.TransactionYankiEntity;
+import nnt_data.yanki_service.infrastructure.persistence.mapper.TransactionYankiMapperImpl;
+import nnt_data.yanki_service.infrastructure.persistence.repository.TransactionYankiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class TransactionWriteBehindTest {
+
+    @TempDir
+    Path directory;
+
+    private final TransactionYankiRepository repository = mock(TransactionYankiRepository.class);
+    private final TwoLevelCache<TransactionYanki> transactionCache = mock(TwoLevelCache.class);
+    private TransactionWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new TransactionWriteBehind(repository, transactionCache, new TransactionYankiMapperImpl(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "directory", directory);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 2);
+        ReflectionTestUtils.setField(writeBehind, "flushInterval", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(writeBehind, "maxPendingBatches", 8);
+        ReflectionTestUtils.setField(writeBehind, "maxFlushRetries", 2);
+        ReflectionTestUtils.setField(writeBehind, "shutdownTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(writeBehind, "transactionCacheTtl", Duration.ofHours(1));
+        when(repository.insert(anyIterable())).thenAnswer(invocation ->
+                Flux.fromIterable((Iterable<TransactionYankiEntity>) invocation.getArgument(0)));
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation ->
+                Flux.fromIterable((Iterable<TransactionYankiEntity>) invocation.getArgument(0)));
+        when(transactionCache.putAll(anyMap(), any())).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writeBehind.stop();
+    }
+
+    @Test
+    void flushesBatchesBySizeAndTimeAndDeletesSegments() throws Exception {
+        writeBehind.start();
+
+        TransactionYankiEntity first = writeBehind.enqueue(entity("987654321")).block();
+        writeBehind.enqueue(entity("987654322")).block();
+        writeBehind.enqueue(entity("987654323")).block();
+
+        assertNotNull(first.getId());
+
+        ArgumentCaptor<Iterable<TransactionYankiEntity>> batches = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository, timeout(2000).times(2)).insert(batches.capture());
+        assertEquals(2, ((List<?>) batches.getAllValues().get(0)).size());
+        assertEquals(1, ((List<?>) batches.getAllValues().get(1)).size());
+
+        ArgumentCaptor<Map<String, TransactionYanki>> cached = ArgumentCaptor.forClass(Map.class);
+        verify(transactionCache, timeout(2000).times(2)).putAll(cached.capture(), any());
+        assertTrue(cached.getAllValues().get(0).containsKey("transaction:" + first.getId()));
+
+        Thread.sleep(200);
+        assertTrue(writeBehind.findUnflushed(first.getId()).blockOptional().isEmpty());
+        assertTrue(TransactionJournal.segments(directory).stream().allMatch(segment -> segment.toFile().length() == 0));
+    }
+
+    @Test
+    void replaysLeftoverSegmentsAndIgnoresTornTail() throws Exception {
+        TransactionYankiEntity pending = entity("987654321");
+        pending.setId("665f1c2e9b1d4a3f8c7e6d5b");
+        TransactionJournal previous = new TransactionJournal(directory, 7, false);
+        previous.append(pending);
+        Path segment = previous.roll();
+        previous.close();
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        // Durante la reescritura la transacción se sigue sirviendo desde memoria
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            assertTrue(writeBehind.findUnflushed(pending.getId()).blockOptional().isPresent());
+            return Flux.fromIterable((Iterable<TransactionYankiEntity>) invocation.getArgument(0));
+        });
+
+        writeBehind.start();
+        writeBehind.run(null);
+
+        ArgumentCaptor<Iterable<TransactionYankiEntity>> replayed = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository, times(1)).saveAll(replayed.capture());
+        assertEquals(List.of(pending), replayed.getValue());
+        assertTrue(Files.notExists(segment));
+        assertTrue(writeBehind.findUnflushed(pending.getId()).blockOptional().isEmpty());
+    }
+
+    @Test
+    void parksABatchThatKeepsFailingAndFlushesTheNextOne() throws Exception {
+        TransactionYankiEntity poison = entity("987654321");
+        TransactionYankiEntity next = entity("987654322");
+        when(repository.insert(anyIterable())).thenAnswer(invocation -> {
+            List<TransactionYankiEntity> batch = (List<TransactionYankiEntity>) invocation.getArgument(0);
+            return batch.contains(poison)
+                    ? Flux.error(new IllegalStateException("documento rechazado por Mongo"))
+                    : Flux.fromIterable(batch);
+        });
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 1);
+        writeBehind.start();
+
+        writeBehind.enqueue(poison).block();
+        writeBehind.enqueue(next).block();
+
+        // Primer intento + 2 reintentos del lote fallido; después se vacía el siguiente
+        verify(repository, timeout(3000).times(4)).insert(anyIterable());
+        Thread.sleep(200);
+        assertTrue(writeBehind.findUnflushed(poison.getId()).blockOptional().isEmpty());
+        assertTrue(writeBehind.findUnflushed(next.getId()).blockOptional().isEmpty());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().endsWith(".journal.failed")).count());
+        }
+    }
+
+    @Test
+    void keepsAppendedRecordsWhenTheSegmentCannotBeRolled() throws Exception {
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 1);
+        writeBehind.start();
+        // Sin directorio el segmento actual sigue abierto, pero no se puede abrir el siguiente
+        for (Path segment : TransactionJournal.segments(directory)) {
+            Files.delete(segment);
+        }
+        Files.delete(directory);
+
+        TransactionYankiEntity appended = writeBehind.enqueue(entity("987654321")).block();
+        assertNotNull(appended.getId());
+        StepVerifier.create(writeBehind.enqueue(entity("987654322")))
+                .expectError(RejectedExecutionException.class)
+                .verify();
+
+        Files.createDirectories(directory);
+        ArgumentCaptor<Iterable<TransactionYankiEntity>> flushed = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository, timeout(2000)).insert(flushed.capture());
+        assertEquals(List.of(appended), flushed.getValue());
+    }
+
+    private static TransactionYankiEntity entity(String telefonoOrigen) {
+        TransactionYankiEntity entity = new TransactionYankiEntity();
+        entity.setType(TransactionYanki.TypeEnum.PAYMENT);
+        entity.setTelefonoOrigen(telefonoOrigen);
+        entity.setTelefonoDestino("912345678");
+        entity.setMonto(new BigDecimal("25.50"));
+        entity.setFecha(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        return entity;
+    }
+}
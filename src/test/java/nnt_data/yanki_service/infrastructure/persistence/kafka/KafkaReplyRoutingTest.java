@@ -0,0 +1,53 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaReplyRoutingTest {
+
+    private final KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of());
+
+    @Test
+    void subscribesToSharedResponsesAndOwnReplyTopicOnly() {
+        KafkaReplyRouting routing = new KafkaReplyRouting(kafkaAdmin, "yanki-7f9c/0", "yanki-replies.",
+                "yanki-service-group", ".*-responses", false);
+        Pattern pattern = Pattern.compile(routing.getTopicPattern());
+
+        assertEquals("yanki-replies.yanki-7f9c-0", routing.getReplyTopic());
+        assertEquals("yanki-service-group.replies.yanki-7f9c-0", routing.getGroupId());
+        assertTrue(pattern.matcher("debit-card-validation-responses").matches());
+        assertTrue(pattern.matcher("transaction-responses").matches());
+        assertTrue(pattern.matcher(routing.getReplyTopic()).matches());
+        assertFalse(pattern.matcher("yanki-replies.yanki-other").matches());
+        assertFalse(pattern.matcher("transaction-requests").matches());
+    }
+
+    @Test
+    void addsReplyHeadersAndFallsBackToStableHostNameInstanceId() {
+        KafkaReplyRouting first = new KafkaReplyRouting(kafkaAdmin, "", "yanki-replies.", "g", ".*-responses", false);
+        KafkaReplyRouting restarted = new KafkaReplyRouting(kafkaAdmin, " ", "yanki-replies.", "g", ".*-responses", false);
+
+        ProducerRecord<String, Object> record = first.withReplyHeaders(
+                new ProducerRecord<>("debit-card-validation-requests", "c-1", "payload"), "c-1");
+
+        // Without a configured id, a restart on the same host reuses the same reply topic and group
+        assertEquals(first.getReplyTopic(), restarted.getReplyTopic());
+        assertEquals(first.getGroupId(), restarted.getGroupId());
+        assertEquals("yanki-replies." + KafkaReplyRouting.hostName().replaceAll("[^a-zA-Z0-9._-]", "-"),
+                first.getReplyTopic());
+        assertEquals(first.getReplyTopic(), new String(
+                record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value(), StandardCharsets.UTF_8));
+        assertEquals("c-1", new String(
+                record.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingResponseRegistryTest {
+
+    private final PendingResponseRegistry registry = new PendingResponseRegistry(
+            4, 2, Duration.ofMillis(10), 8, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void completeEmitsPayloadAndFreesSlot() {
+        var response = registry.register("c1", Duration.ofSeconds(5));
+        assertEquals(1, registry.size());
+
+        assertTrue(registry.complete("c1", "ok"));
+
+        StepVerifier.create(response).expectNext("ok").verifyComplete();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void expiredEntriesFailWithTimeoutAndLateRepliesAreCounted() {
+        var response = registry.register("c2", Duration.ofMillis(30));
+
+        StepVerifier.create(response)
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(0, registry.size());
+        assertEquals(1, registry.expirations());
+        assertFalse(registry.complete("c2", "late"));
+        assertEquals(1, registry.lateReplies());
+    }
+
+    @Test
+    void rejectsRegistrationsBeyondMaxInFlight() {
+        registry.register("c3", Duration.ofSeconds(5));
+        registry.register("c4", Duration.ofSeconds(5));
+
+        assertThrows(RejectedExecutionException.class,
+                () -> registry.register("c5", Duration.ofSeconds(5)));
+
+        registry.remove("c3");
+        registry.register("c5", Duration.ofSeconds(5));
+        assertEquals(2, registry.size());
+    }
+}
@@ -0,0 +1,102 @@
+package nnt_data.yanki_service.infrastructure.persistence.kafka;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class ReactiveKafkaProducerTest {
+
+    private final KafkaSender<String, Object> kafkaSender = mock(KafkaSender.class);
+
+    @Test
+    void resubscribesAfterTheSenderPipelineFails() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        when(kafkaSender.send(any())).thenAnswer(call -> {
+            Publisher<SenderRecord<String, Object, Sinks.One<RecordMetadata>>> records = call.getArgument(0);
+            if (subscriptions.incrementAndGet() == 1) {
+                return Flux.error(new IllegalStateException("productor cerrado"));
+            }
+            return Flux.from(records).map(ReactiveKafkaProducerTest::acknowledged);
+        });
+        ReactiveKafkaProducer producer = new ReactiveKafkaProducer(kafkaSender, 16);
+
+        StepVerifier.create(producer.send("transaction-requests", "k", "v"))
+                .expectNextMatches(metadata -> metadata.topic().equals("transaction-requests"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() {
+        when(kafkaSender.send(any())).thenReturn(Flux.never());
+        ReactiveKafkaProducer producer = new ReactiveKafkaProducer(kafkaSender, 16);
+        AtomicInteger rejected = new AtomicInteger();
+
+        for (int i = 0; i < 64; i++) {
+            producer.send("t", "k", i).subscribe(metadata -> { }, error -> {
+                if (error instanceof RejectedExecutionException) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+
+        assertEquals(64 - 16, rejected.get());
+    }
+
+    @Test
+    void concurrentSendsAreAllDelivered() {
+        when(kafkaSender.send(any())).thenAnswer(call -> Flux.from(
+                (Publisher<SenderRecord<String, Object, Sinks.One<RecordMetadata>>>) call.getArgument(0))
+                .map(ReactiveKafkaProducerTest::acknowledged));
+        ReactiveKafkaProducer producer = new ReactiveKafkaProducer(kafkaSender, 1024);
+
+        StepVerifier.create(Flux.range(0, 500)
+                        .parallel(8)
+                        .runOn(Schedulers.parallel())
+                        .flatMap(i -> producer.send("t", String.valueOf(i), i))
+                        .sequential())
+                .expectNextCount(500)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private static SenderResult<Sinks.One<RecordMetadata>> acknowledged(
+            SenderRecord<String, Object, Sinks.One<RecordMetadata>> record) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, 0, 0, 0, 0);
+        return new SenderResult<>() {
+            @Override
+            public RecordMetadata recordMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Exception exception() {
+                return null;
+            }
+
+            @Override
+            public Sinks.One<RecordMetadata> correlationMetadata() {
+                return record.correlationMetadata();
+            }
+        };
+    }
+}
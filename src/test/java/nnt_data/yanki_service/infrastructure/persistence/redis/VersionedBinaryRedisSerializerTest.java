@@ -0,0 +1,61 @@
+package nnt_data.yanki_service.infrastructure.persistence.redis;
+
+import nnt_data.yanki_service.entity.TransactionYanki;
+import nnt_data.yanki_service.entity.UserYanki;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionedBinaryRedisSerializerTest {
+
+    private final Jackson2JsonRedisSerializer<UserYanki> userJson = new Jackson2JsonRedisSerializer<>(UserYanki.class);
+    private final VersionedBinaryRedisSerializer<UserYanki> userSerializer =
+            new VersionedBinaryRedisSerializer<>(new UserYankiBinaryCodec(), userJson);
+    private final Jackson2JsonRedisSerializer<TransactionYanki> transactionJson =
+            new Jackson2JsonRedisSerializer<>(TransactionYanki.class);
+    private final VersionedBinaryRedisSerializer<TransactionYanki> transactionSerializer =
+            new VersionedBinaryRedisSerializer<>(new TransactionYankiBinaryCodec(), transactionJson);
+
+    @Test
+    void roundTripsValuesAndIsSmallerThanJson() {
+        UserYanki user = new UserYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5a")
+                .tipoDocumento(UserYanki.TipoDocumentoEnum.DNI)
+                .numeroDocumento("71234567")
+                .telefono("987654321")
+                .imei("356938035643809")
+                .correo("cliente@correo.pe")
+                .pin("1234");
+        TransactionYanki transaction = new TransactionYanki()
+                .id("665f1c2e9b1d4a3f8c7e6d5b")
+                .type(TransactionYanki.TypeEnum.PAYMENT)
+                .telefonoOrigen("987654321")
+                .telefonoDestino("912345678")
+                .monto(new BigDecimal("-150.75"));
+
+        byte[] userBytes = userSerializer.serialize(user);
+        byte[] transactionBytes = transactionSerializer.serialize(transaction);
+
+        assertEquals(user, userSerializer.deserialize(userBytes));
+        assertEquals(transaction, transactionSerializer.deserialize(transactionBytes));
+        // Tamaños fijados del formato v1 (JSON: 197 y 125 bytes); un cambio de formato que los
+        // engorde debe notarse aquí, no en la memoria de Redis
+        assertEquals(90, userBytes.length);
+        assertEquals(59, transactionBytes.length);
+        assertTrue(userBytes.length * 2 < userJson.serialize(user).length);
+        assertTrue(transactionBytes.length * 2 < transactionJson.serialize(transaction).length);
+    }
+
+    @Test
+    void readsLegacyJsonEntries() {
+        UserYanki user = new UserYanki().id("u-1").telefono("987654321").tarjetaAsociada("4111111111111111");
+
+        assertEquals(user, userSerializer.deserialize(userJson.serialize(user)));
+        assertNull(userSerializer.deserialize(new byte[0]));
+    }
+}
@@ -0,0 +1,56 @@
+package nnt_data.yanki_service.infrastructure.persistence.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoIndexInitializerTest {
+
+    private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    private final ReactiveIndexOperations indexOps = mock(ReactiveIndexOperations.class);
+
+    private MongoIndexInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        when(template.indexOps(any(Class.class))).thenReturn(indexOps);
+        initializer = new MongoIndexInitializer(template, new MongoMappingContext());
+        ReflectionTestUtils.setField(initializer, "timeout", Duration.ofMillis(200));
+    }
+
+    @Test
+    void startupContinuesWhileAnIndexBuildIsStillRunning() {
+        // La construcción no termina nunca dentro del plazo: el arranque no debe fallar
+        when(indexOps.ensureIndex(any(IndexDefinition.class))).thenReturn(Mono.never());
+        when(indexOps.getIndexInfo()).thenReturn(Flux.empty());
+
+        initializer.run(null);
+
+        verify(indexOps, never()).dropIndex(any());
+    }
+
+    @Test
+    void startupFailsWhenADeclaredIndexIsMissingAfterCreation() {
+        when(indexOps.ensureIndex(any(IndexDefinition.class))).thenAnswer(call -> Mono.just("idx"));
+        when(indexOps.getIndexInfo()).thenReturn(Flux.empty());
+
+        assertThrows(IllegalStateException.class, () -> initializer.run(null));
+        verify(indexOps, never()).dropIndex(eq("idx"));
+    }
+}
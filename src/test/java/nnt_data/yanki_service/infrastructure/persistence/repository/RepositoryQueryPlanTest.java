@@ -0,0 +1,181 @@
+package nnt_data.yanki_service.infrastructure.persistence.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Ejecuta cada método de consulta declarado en los repositorios contra un Mongo real con los
+ * índices de {@link MongoIndexInitializer}, captura el comando enviado y falla si el plan
+ * ganador de su {@code explain} contiene un COLLSCAN.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryQueryPlanTest {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    private static final String SAMPLE_ID = "000000000000000000000000";
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static final List<BsonDocument> capturedCommands = new CopyOnWriteArrayList<>();
+    private static MongoClient client;
+    private static ReactiveMongoTemplate template;
+    private static ReactiveMongoRepositoryFactory repositoryFactory;
+
+    @BeforeAll
+    static void setUp() {
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(MONGO.getReplicaSetUrl("yanki")))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                            capturedCommands.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build();
+        client = MongoClients.create(settings);
+        template = new ReactiveMongoTemplate(client, "yanki");
+        new MongoIndexInitializer(template,
+                (MongoMappingContext) template.getConverter().getMappingContext())
+                .ensureIndexes()
+                .block();
+        repositoryFactory = new ReactiveMongoRepositoryFactory(template);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void userRepositoryQueriesUseIndexes() {
+        assertNoCollectionScans(UserYankiRepository.class);
+    }
+
+    @Test
+    void transactionRepositoryQueriesUseIndexes() {
+        assertNoCollectionScans(TransactionYankiRepository.class);
+    }
+
+    private void assertNoCollectionScans(Class<?> repositoryType) {
+        Object repository = repositoryFactory.getRepository(repositoryType);
+        List<String> failures = new ArrayList<>();
+        for (Method method : repositoryType.getDeclaredMethods()) {
+            if (method.isDefault() || method.isSynthetic()) {
+                continue;
+            }
+            capturedCommands.clear();
+            invoke(repository, method);
+            assertFalse(capturedCommands.isEmpty(), "No se capturó ninguna consulta para " + method.getName());
+            for (BsonDocument command : capturedCommands) {
+                Document plan = explain(command);
+                if (containsCollectionScan(plan)) {
+                    failures.add(method.getName() + " -> " + command.toJson());
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail("Consultas con COLLSCAN:\n" + String.join("\n", failures));
+        }
+    }
+
+    private static void invoke(Object repository, Method method) {
+        Object[] args = new Object[method.getParameterCount()];
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleArgument(method, types[i]);
+        }
+        try {
+            Object result = method.invoke(repository, args);
+            if (result instanceof Mono<?> mono) {
+                mono.block();
+            } else if (result instanceof Flux<?> flux) {
+                flux.collectList().block();
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo invocar " + method.getName(), e);
+        }
+    }
+
+    private static Object sampleArgument(Method method, Class<?> type) {
+        if (type == String.class) {
+            return SAMPLE_ID;
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(SAMPLE_ID);
+        }
+        if (type == Instant.class) {
+            return Instant.now();
+        }
+        if (type == Date.class) {
+            return new Date();
+        }
+        if (type == int.class || type == Integer.class) {
+            return 10;
+        }
+        if (type == long.class || type == Long.class) {
+            return 10L;
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 10);
+        }
+        throw new IllegalArgumentException("Tipo de parámetro sin valor de ejemplo en " + method.getName() + ": " + type);
+    }
+
+    private static Document explain(BsonDocument command) {
+        BsonDocument explained = command.clone();
+        for (String key : List.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber")) {
+            explained.remove(key);
+        }
+        Document explainCommand = new Document("explain", explained).append("verbosity", "queryPlanner");
+        return Mono.from(client.getDatabase("yanki").runCommand(explainCommand)).block();
+    }
+
+    private static boolean containsCollectionScan(Object node) {
+        if (node instanceof Document document) {
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                return true;
+            }
+            return document.entrySet().stream()
+                    .filter(entry -> !"rejectedPlans".equals(entry.getKey()))
+                    .anyMatch(entry -> containsCollectionScan(entry.getValue()));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(RepositoryQueryPlanTest::containsCollectionScan);
+        }
+        return false;
+    }
+}
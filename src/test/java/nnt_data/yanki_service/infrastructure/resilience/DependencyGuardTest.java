@@ -0,0 +1,106 @@
+package nnt_data.yanki_service.infrastructure.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import nnt_data.yanki_service.domain.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGuardTest {
+
+    private final DependencyGuard guard = new DependencyGuard(
+            CircuitBreaker.of("redis", CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofSeconds(30))
+                    .build()),
+            Bulkhead.of("redis", BulkheadConfig.custom()
+                    .maxConcurrentCalls(1)
+                    .maxWaitDuration(Duration.ZERO)
+                    .build()),
+            Duration.ofSeconds(30));
+
+    @Test
+    void opensAfterFailuresAndThenRejectsWithoutCallingTheDependency() {
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(guard.protect(Mono.error(new IllegalStateException("conexión rechazada"))))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+        }
+        assertTrue(guard.isOpen());
+
+        AtomicInteger calls = new AtomicInteger();
+        StepVerifier.create(guard.protect(Mono.fromCallable(calls::incrementAndGet)))
+                .expectErrorSatisfies(error -> {
+                    assertTrue(error instanceof ServiceOverloadedException);
+                    assertEquals(Duration.ofSeconds(30), ((ServiceOverloadedException) error).getRetryAfter());
+                })
+                .verify(Duration.ofMillis(100));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void bulkheadRejectsConcurrentCallsBeyondItsLimit() {
+        Sinks.One<String> slow = Sinks.one();
+        guard.protect(slow.asMono()).subscribe();
+
+        StepVerifier.create(guard.protect(Mono.just("ok")))
+                .expectError(ServiceOverloadedException.class)
+                .verify();
+
+        slow.tryEmitValue("listo");
+        StepVerifier.create(guard.protect(Mono.just("ok"))).expectNext("ok").verifyComplete();
+    }
+
+    @Test
+    void streamReleasesTheBulkheadOnceTheFirstElementArrives() {
+        guard.protectStream("findHistory", Flux.concat(Flux.just("primero"), Flux.never())).subscribe();
+
+        StepVerifier.create(guard.protect(Mono.just("ok"))).expectNext("ok").verifyComplete();
+    }
+
+    @Test
+    void slowConsumersDoNotCountAsSlowCallsButFailuresBeforeTheFirstElementDo() {
+        DependencyGuard mongo = new DependencyGuard(
+                CircuitBreaker.of("mongo", CircuitBreakerConfig.custom()
+                        .slidingWindowSize(4)
+                        .minimumNumberOfCalls(4)
+                        .slowCallDurationThreshold(Duration.ofMillis(20))
+                        .slowCallRateThreshold(50)
+                        .build()),
+                Bulkhead.of("mongo", BulkheadConfig.custom().maxConcurrentCalls(1).build()),
+                Duration.ofSeconds(30));
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(mongo.protectStream("findHistory", Flux.just(1, 2, 3))
+                            .delayElements(Duration.ofMillis(20)))
+                    .expectNextCount(3)
+                    .verifyComplete();
+        }
+        assertFalse(mongo.isOpen());
+
+        // Ventana de 4 llamadas: dos fallos sobre cuatro alcanzan el 50 %
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(mongo.protectStream("findHistory", Flux.error(new IllegalStateException("sin conexión"))))
+                    .expectError(IllegalStateException.class)
+                    .verify();
+        }
+        assertTrue(mongo.isOpen());
+        StepVerifier.create(mongo.protectStream("findHistory", Flux.just(1)))
+                .expectError(ServiceOverloadedException.class)
+                .verify();
+    }
+}